@@ -7,6 +7,7 @@
 package org.mule.test.components.metrics;
 
 import static org.mule.runtime.api.util.MuleSystemProperties.MULE_ENABLE_STATISTICS;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_ERROR_METRICS_FACTORY_KEY;
 import static org.mule.runtime.core.api.util.IOUtils.getResourceAsUrl;
 import static org.mule.runtime.metrics.exporter.api.MeterExporterProperties.METRIC_EXPORTER_ENABLED_PROPERTY;
 import static org.mule.runtime.metrics.exporter.config.api.OpenTelemetryMeterExporterConfigurationProperties.MULE_OPEN_TELEMETRY_METER_EXPORTER_CONFIGURATION_FILE_PATH;
@@ -23,6 +24,10 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 
+import org.mule.runtime.api.config.custom.ServiceConfigurator;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.metrics.impl.meter.error.DefaultErrorMetricsFactory;
 import org.mule.test.components.metrics.export.ExportedMeter;
 import org.mule.test.components.metrics.export.OpenTelemetryMetricsTestUtils;
 import org.mule.functional.junit4.MuleArtifactFunctionalTestCase;
@@ -58,13 +63,20 @@ public abstract class AbstractOpenTelemetryMetricsTestCase extends
     setProperty(MULE_ENABLE_STATISTICS, TRUE.toString());
     setProperty(METRIC_EXPORTER_ENABLED_PROPERTY, TRUE.toString());
 
-    String configurationFilePath = getResourceAsUrl(EXPORTER_CONF_FILE, getClass()).toURI().getPath();
+    String configurationFilePath = getResourceAsUrl(getExporterConfigurationFile(), getClass()).toURI().getPath();
     setProperty(MULE_OPEN_TELEMETRY_METER_EXPORTER_CONFIGURATION_FILE_PATH, configurationFilePath);
     setProperty(MULE_OPEN_TELEMETRY_METER_EXPORTER_ENABLED, TRUE.toString());
     setProperty(MULE_OPEN_TELEMETRY_METER_EXPORTER_ENDPOINT,
                 "http://localhost:" + server.httpPort());
   }
 
+  /**
+   * @return the meter exporter configuration file of the test, as a resource.
+   */
+  protected String getExporterConfigurationFile() {
+    return EXPORTER_CONF_FILE;
+  }
+
   @After
   public void after() {
     clearProperty(MULE_ENABLE_STATISTICS);
@@ -75,6 +87,25 @@ public abstract class AbstractOpenTelemetryMetricsTestCase extends
     server.reset();
   }
 
+  /**
+   * @param errorMetricsFactory the error metrics factory to use instead of the one of the runtime.
+   * @return a builder that overrides the error metrics factory, to be added in {@link #addBuilders(List)}.
+   */
+  protected static ConfigurationBuilder withErrorMetricsFactory(DefaultErrorMetricsFactory errorMetricsFactory) {
+    return new ConfigurationBuilder() {
+
+      @Override
+      public void addServiceConfigurator(ServiceConfigurator serviceConfigurator) {
+        // Nothing to do.
+      }
+
+      @Override
+      public void configure(MuleContext muleContext) {
+        muleContext.getCustomizationService().overrideDefaultServiceImpl(MULE_ERROR_METRICS_FACTORY_KEY, errorMetricsFactory);
+      }
+    };
+  }
+
   protected void verifyMetricsExists(String metricName, String description, String resourceName, String instrumentationName,
                                      long expectedValue, List<ExportedMeter> metrics) {
     List<ExportedMeter> exportedMetersForMetric =
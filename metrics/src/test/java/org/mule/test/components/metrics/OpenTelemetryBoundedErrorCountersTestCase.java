@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics;
+
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.components.metrics.export.BoundedCardinalityErrorCounters.BOUNDED_ERROR_METRICS_INSTRUMENT_NAME;
+import static org.mule.test.components.metrics.export.BoundedCardinalityErrorCounters.ERROR_SERIES_COUNT_DESCRIPTION;
+import static org.mule.test.components.metrics.export.BoundedCardinalityErrorCounters.ERROR_SERIES_COUNT_NAME;
+import static org.mule.test.components.metrics.export.BoundedCardinalityErrorCounters.ERROR_TYPE;
+import static org.mule.test.components.metrics.export.BoundedCardinalityErrorCounters.OTHER;
+
+import static java.util.stream.Collectors.toList;
+
+import static io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector.alwaysCumulative;
+import static io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector.deltaPreferred;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.api.message.Error;
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.metrics.api.error.ErrorIdProvider;
+import org.mule.runtime.metrics.api.error.ErrorMetrics;
+import org.mule.runtime.metrics.api.meter.Meter;
+import org.mule.runtime.metrics.impl.meter.error.DefaultErrorMetricsFactory;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.metrics.export.BoundedCardinalityErrorCounters;
+import org.mule.test.components.metrics.export.ExportedDataPoint;
+import org.mule.test.components.metrics.export.ExportedMeter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.qameta.allure.Feature;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+@Feature(PROFILING)
+public class OpenTelemetryBoundedErrorCountersTestCase extends AbstractOpenTelemetryMetricsTestCase {
+
+  private static final String RESOURCE_NAME = "OpenTelemetryBoundedErrorCountersTestCase#errorSeriesAreBounded";
+  private static final int MAX_SERIES_PER_INTERVAL = 2;
+  // Errors measured by each flow, as in OpenTelemetryErrorCountersTestCase
+  private static final String[] FLOWS = {"simple-flow", "failed-propagate-flow", "failed-try-and-continue-flow"};
+  private static final int EXPECTED_ERRORS = 1 + 2 + 3;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  // The runtime meters go to the server of the base class, so the first export captured there may not have these meters
+  @Rule
+  public final TestGrpcServerRule errorSeriesServer = new TestGrpcServerRule();
+
+  private BoundedCardinalityErrorCounters errorCounters;
+
+  @Override
+  protected String getConfigFile() {
+    return "metrics/error-counters-metric.xml";
+  }
+
+  @Override
+  protected void addBuilders(List<ConfigurationBuilder> builders) {
+    super.addBuilders(builders);
+    errorCounters = new BoundedCardinalityErrorCounters(RESOURCE_NAME, OtlpGrpcMetricExporter.builder()
+        .setEndpoint("http://localhost:" + errorSeriesServer.httpPort())
+        .setAggregationTemporalitySelector(deltaPreferred())
+        .build(), MAX_SERIES_PER_INTERVAL);
+    builders.add(withErrorMetricsFactory(new BoundedErrorMetricsFactory()));
+  }
+
+  @After
+  public void shutdownErrorCounters() {
+    errorCounters.shutdown();
+    errorSeriesServer.reset();
+  }
+
+  @Test
+  public void errorSeriesAreBounded() throws Exception {
+    for (String flow : FLOWS) {
+      flowRunner(flow).withPayload(TEST_PAYLOAD).runExpectingException();
+    }
+    errorCounters.flush();
+
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return errorSeriesServer.getMetrics() != null;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The error series were not exported";
+      }
+    });
+
+    List<ExportedMeter> exportedMeters = errorSeriesServer.getMetrics().stream()
+        .filter(metric -> metric.getName().equals(ERROR_SERIES_COUNT_NAME)).collect(toList());
+    assertThat(exportedMeters, hasSize(1));
+    ExportedMeter exportedMeter = exportedMeters.get(0);
+    assertThat(exportedMeter.getDescription(), equalTo(ERROR_SERIES_COUNT_DESCRIPTION));
+    assertThat(exportedMeter.getResourceName(), equalTo(RESOURCE_NAME));
+    assertThat(exportedMeter.getInstrumentName(), equalTo(BOUNDED_ERROR_METRICS_INSTRUMENT_NAME));
+
+    // The flows fail at more locations than the series allowed, so the rest are collapsed into the other series
+    List<ExportedDataPoint> series = exportedMeter.getDataPoints();
+    assertThat(series, hasSize(MAX_SERIES_PER_INTERVAL + 1));
+    assertThat(series.stream().map(dataPoint -> dataPoint.getAttributes().get(ERROR_TYPE.getKey())).collect(toList()),
+               hasItem(OTHER));
+    assertThat(series.stream().mapToLong(ExportedDataPoint::getValue).sum(), equalTo((long) EXPECTED_ERRORS));
+  }
+
+  @Test
+  public void errorIdsAreBoundedAcrossIntervals() {
+    ErrorIdProvider errorIdProvider = errorCounters.getErrorIdProvider();
+    Set<String> errorIds = new HashSet<>();
+    ErrorMetrics errorMetrics = errorCounters.decorate(new ErrorMetrics() {
+
+      @Override
+      public void measure(Error error) {
+        errorIds.add(errorIdProvider.getErrorId(error));
+      }
+
+      @Override
+      public void measure(Throwable error) {
+        errorIds.add(errorIdProvider.getErrorId(error));
+      }
+    });
+
+    // Each error is the only one of its interval, so every interval has room for its series
+    for (Throwable error : new Throwable[] {new IllegalArgumentException(), new IllegalStateException(),
+        new UnsupportedOperationException(), new ArithmeticException()}) {
+      errorMetrics.measure(error);
+      errorCounters.flush();
+    }
+
+    // The error counter of the runtime is cumulative, so it only gets the ids of the first errors
+    assertThat(errorIds, containsInAnyOrder(IllegalArgumentException.class.getName() + "|unknown",
+                                            IllegalStateException.class.getName() + "|unknown", OTHER));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void cumulativeExporterIsRejected() {
+    new BoundedCardinalityErrorCounters(RESOURCE_NAME, OtlpGrpcMetricExporter.builder()
+        .setEndpoint("http://localhost:" + errorSeriesServer.httpPort())
+        .setAggregationTemporalitySelector(alwaysCumulative())
+        .build(), MAX_SERIES_PER_INTERVAL);
+  }
+
+  private class BoundedErrorMetricsFactory extends DefaultErrorMetricsFactory {
+
+    @Override
+    public ErrorMetrics create(Meter errorMetricsMeter) {
+      return errorCounters.decorate(create(errorMetricsMeter, errorCounters.getErrorIdProvider()));
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics;
+
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.FLOW_DURATION_DESCRIPTION;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.FLOW_DURATION_NAME;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.FLOW_NAME;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.LATENCY_METRICS_INSTRUMENT_NAME;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.LOCATION;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.PROCESSOR_DURATION_DESCRIPTION;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.PROCESSOR_DURATION_NAME;
+
+import static java.util.stream.Collectors.toList;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.metrics.export.ExportedHistogramPoint;
+import org.mule.test.components.metrics.export.ExportedMeter;
+import org.mule.test.components.metrics.export.FlowLatencyHistograms;
+
+import java.util.List;
+
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.qameta.allure.Feature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+@Feature(PROFILING)
+public class OpenTelemetryLatencyHistogramsTestCase extends AbstractOpenTelemetryMetricsTestCase {
+
+  private static final String RESOURCE_NAME = "OpenTelemetryLatencyHistogramsTestCase#latencyHistograms";
+  private static final String FLOW = "latency-flow";
+  private static final int FLOW_RUNS = 20;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  // The runtime meters go to the server of the base class, so the first export captured there may not have the histograms
+  @Rule
+  public final TestGrpcServerRule histogramsServer = new TestGrpcServerRule();
+
+  private FlowLatencyHistograms histograms;
+
+  @Override
+  protected String getConfigFile() {
+    return "metrics/latency-histograms.xml";
+  }
+
+  @Before
+  public void registerHistograms() {
+    histograms = new FlowLatencyHistograms(muleContext.getConfiguration().getId(), OtlpGrpcMetricExporter.builder()
+        .setEndpoint("http://localhost:" + histogramsServer.httpPort())
+        .build());
+    histograms.register(muleContext.getNotificationManager());
+  }
+
+  @After
+  public void shutdownHistograms() {
+    histograms.shutdown();
+    histogramsServer.reset();
+  }
+
+  @Test
+  public void latencyHistograms() throws Exception {
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner(FLOW).withPayload(TEST_PAYLOAD).run();
+    }
+
+    // The last notifications may come after the flow runs return, so the export is retried until it has every run
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        histograms.flush();
+        List<ExportedMeter> metrics = histogramsServer.getMetrics();
+        if (metrics != null && hasEveryRun(metrics, FLOW_DURATION_NAME) && hasEveryRun(metrics, PROCESSOR_DURATION_NAME)) {
+          return true;
+        }
+        histogramsServer.reset();
+        return false;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The latency histograms of the " + FLOW_RUNS + " flow runs were not exported";
+      }
+    });
+
+    List<ExportedHistogramPoint> flowPoints =
+        verifyHistogramExists(FLOW_DURATION_NAME, FLOW_DURATION_DESCRIPTION, histogramsServer.getMetrics());
+    assertThat(flowPoints, hasSize(1));
+    verifyHistogramPoint(flowPoints.get(0), FLOW_NAME.getKey(), FLOW);
+
+    List<ExportedHistogramPoint> processorPoints =
+        verifyHistogramExists(PROCESSOR_DURATION_NAME, PROCESSOR_DURATION_DESCRIPTION, histogramsServer.getMetrics());
+    assertThat(processorPoints, hasSize(2));
+    for (ExportedHistogramPoint processorPoint : processorPoints) {
+      assertThat(processorPoint.getAttributes().get(LOCATION.getKey()).startsWith(FLOW + "/processors/"), equalTo(true));
+      verifyHistogramPoint(processorPoint, LOCATION.getKey(), processorPoint.getAttributes().get(LOCATION.getKey()));
+    }
+  }
+
+  private static boolean hasEveryRun(List<ExportedMeter> metrics, String metricName) {
+    List<ExportedHistogramPoint> points = metrics.stream().filter(metric -> metric.getName().equals(metricName))
+        .flatMap(metric -> metric.getHistogramPoints().stream()).collect(toList());
+    return !points.isEmpty() && points.stream().allMatch(point -> point.getCount() == FLOW_RUNS);
+  }
+
+  private List<ExportedHistogramPoint> verifyHistogramExists(String metricName, String description,
+                                                             List<ExportedMeter> metrics) {
+    List<ExportedMeter> exportedMetersForMetric =
+        metrics.stream().filter(metric -> metric.getName().equals(metricName)).collect(toList());
+    assertThat(exportedMetersForMetric, hasSize(1));
+    ExportedMeter exportedMeter = exportedMetersForMetric.get(0);
+    assertThat(exportedMeter.getDescription(), equalTo(description));
+    assertThat(exportedMeter.getResourceName(), equalTo(RESOURCE_NAME));
+    assertThat(exportedMeter.getInstrumentName(), equalTo(LATENCY_METRICS_INSTRUMENT_NAME));
+    return exportedMeter.getHistogramPoints();
+  }
+
+  private void verifyHistogramPoint(ExportedHistogramPoint point, String attributeKey, String attributeValue) {
+    assertThat(point.getAttributes().get(attributeKey), equalTo(attributeValue));
+    assertThat(point.getCount(), equalTo((long) FLOW_RUNS));
+    assertThat(point.getSum(), greaterThan(0d));
+    assertThat(point.getValueAtQuantile(0.99), greaterThanOrEqualTo(point.getValueAtQuantile(0.5)));
+  }
+
+}
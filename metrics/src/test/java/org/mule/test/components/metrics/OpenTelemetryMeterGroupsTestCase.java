@@ -0,0 +1,181 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics;
+
+import static org.mule.runtime.core.api.util.IOUtils.getResourceAsUrl;
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.components.metrics.export.FlowLatencyHistograms.FLOW_DURATION_NAME;
+import static org.mule.test.components.metrics.export.MeterExporterGroupsConfiguration.MeterGroup.HIGH_FREQUENCY;
+
+import static java.time.Duration.ofSeconds;
+import static java.util.stream.Collectors.toList;
+
+import static io.opentelemetry.sdk.metrics.data.AggregationTemporality.DELTA;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.metrics.export.ExportedHistogramPoint;
+import org.mule.test.components.metrics.export.ExportedMeter;
+import org.mule.test.components.metrics.export.FlowLatencyHistograms;
+import org.mule.test.components.metrics.export.MeterExporterGroupsConfiguration;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.qameta.allure.Feature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Exports the {@link FlowLatencyHistograms} with the temporality and the group intervals of a meter exporter configuration.
+ * <p>
+ * Only the meters exported through the exporters and readers of {@link MeterExporterGroupsConfiguration} use them. The meters
+ * the runtime exports itself to the server of the base class stay cumulative and keep the single interval of its exporter.
+ */
+@Feature(PROFILING)
+public class OpenTelemetryMeterGroupsTestCase extends AbstractOpenTelemetryMetricsTestCase {
+
+  private static final String FLOW = "latency-flow";
+  private static final int FIRST_INTERVAL_FLOW_RUNS = 20;
+  private static final int SECOND_INTERVAL_FLOW_RUNS = 5;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  // The runtime meters go to the server of the base class, so the first export captured there may not have the histograms
+  @Rule
+  public final TestGrpcServerRule groupServer = new TestGrpcServerRule();
+
+  private MeterExporterGroupsConfiguration configuration;
+  private FlowLatencyHistograms histograms;
+
+  @Override
+  protected String getConfigFile() {
+    return "metrics/latency-histograms.xml";
+  }
+
+  @Override
+  protected String getExporterConfigurationFile() {
+    return "conf/meter-exporter-delta.conf";
+  }
+
+  @Before
+  public void loadConfiguration() throws Exception {
+    configuration = MeterExporterGroupsConfiguration
+        .load(Paths.get(getResourceAsUrl(getExporterConfigurationFile(), getClass()).toURI()));
+  }
+
+  @After
+  public void shutdownHistograms() {
+    if (histograms != null) {
+      histograms.shutdown();
+    }
+    groupServer.reset();
+  }
+
+  @Test
+  public void configuration() {
+    assertThat(configuration.getAggregationTemporality(), equalTo(DELTA));
+    assertThat(configuration.getInterval(HIGH_FREQUENCY), equalTo(ofSeconds(1)));
+  }
+
+  @Test
+  public void deltaTemporality() throws Exception {
+    // Only exported on flush, so each flush closes an interval
+    registerHistograms(new FlowLatencyHistograms("OpenTelemetryMeterGroupsTestCase#deltaTemporality",
+                                                 configuration.createExporter("http://localhost:" + groupServer.httpPort())));
+
+    runFlow(FIRST_INTERVAL_FLOW_RUNS);
+    awaitRecordedFlowExecutions(FIRST_INTERVAL_FLOW_RUNS);
+    histograms.flush();
+    assertThat(getFlowDurationCount(awaitFlowDuration(false)), equalTo((long) FIRST_INTERVAL_FLOW_RUNS));
+
+    groupServer.reset();
+    runFlow(SECOND_INTERVAL_FLOW_RUNS);
+    awaitRecordedFlowExecutions(FIRST_INTERVAL_FLOW_RUNS + SECOND_INTERVAL_FLOW_RUNS);
+    histograms.flush();
+    // With cumulative temporality, the count would include the runs of the first interval
+    assertThat(getFlowDurationCount(awaitFlowDuration(false)), equalTo((long) SECOND_INTERVAL_FLOW_RUNS));
+  }
+
+  @Test
+  public void highFrequencyGroupIsExportedAtItsInterval() throws Exception {
+    MetricExporter exporter = configuration.createExporter("http://localhost:" + groupServer.httpPort());
+    registerHistograms(new FlowLatencyHistograms("OpenTelemetryMeterGroupsTestCase#highFrequencyGroupIsExportedAtItsInterval",
+                                                 configuration.createMetricReader(exporter, HIGH_FREQUENCY)));
+
+    runFlow(1);
+    // Not flushed, so the histograms are exported by the periodic reader of the group
+    assertThat(getFlowDurationCount(awaitFlowDuration(true)), equalTo(1L));
+  }
+
+  private void registerHistograms(FlowLatencyHistograms flowLatencyHistograms) {
+    histograms = flowLatencyHistograms;
+    histograms.register(muleContext.getNotificationManager());
+  }
+
+  private void awaitRecordedFlowExecutions(long executions) {
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return histograms.getRecordedFlowExecutions() == executions;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The flow executions recorded were " + histograms.getRecordedFlowExecutions() + " instead of " + executions;
+      }
+    });
+  }
+
+  private void runFlow(int times) throws Exception {
+    for (int i = 0; i < times; i++) {
+      flowRunner(FLOW).withPayload(TEST_PAYLOAD).run();
+    }
+  }
+
+  private List<ExportedMeter> awaitFlowDuration(boolean skipExportsWithoutIt) {
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        List<ExportedMeter> metrics = groupServer.getMetrics();
+        if (metrics == null) {
+          return false;
+        }
+        if (skipExportsWithoutIt && metrics.stream().noneMatch(metric -> metric.getName().equals(FLOW_DURATION_NAME))) {
+          // Only the first export is captured, so the next one is captured after the reset
+          groupServer.reset();
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The flow duration histogram was not exported";
+      }
+    });
+    return groupServer.getMetrics();
+  }
+
+  private static long getFlowDurationCount(List<ExportedMeter> metrics) {
+    List<ExportedHistogramPoint> points = metrics.stream()
+        .filter(metric -> metric.getName().equals(FLOW_DURATION_NAME))
+        .flatMap(metric -> metric.getHistogramPoints().stream())
+        .collect(toList());
+    assertThat(points, hasSize(1));
+    return points.get(0).getCount();
+  }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics;
+
+import static org.mule.runtime.api.component.location.Location.builderFromStringRepresentation;
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.BACKPRESSURE_REJECTIONS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.BACKPRESSURE_REJECTIONS_NAME;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.CPU_INTENSIVE_POOL;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.CPU_LITE_POOL;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.FLOW_NAME;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.IN_FLIGHT_EVENTS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.IN_FLIGHT_EVENTS_NAME;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.IO_POOL;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.POOL;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.QUEUE_DEPTH_DESCRIPTION;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.QUEUE_DEPTH_NAME;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.SATURATION_METRICS_INSTRUMENT_NAME;
+
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.util.stream.Collectors.toList;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.api.source.SchedulerMessageSource;
+import org.mule.runtime.api.util.concurrent.Latch;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategyFactory;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.metrics.export.ExportedDataPoint;
+import org.mule.test.components.metrics.export.ExportedMeter;
+import org.mule.test.components.metrics.export.SaturationMeasuringProcessingStrategyFactory;
+import org.mule.test.components.metrics.export.SchedulerSaturationMeters;
+
+import java.util.List;
+
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.qameta.allure.Feature;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+@Feature(PROFILING)
+public class OpenTelemetrySchedulerSaturationTestCase extends AbstractOpenTelemetryMetricsTestCase {
+
+  private static final String RESOURCE_NAME = "OpenTelemetrySchedulerSaturationTestCase#saturationUnderBackpressure";
+  private static final String FLOW = "saturated-flow";
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  private static Latch hangLatch = new Latch();
+  private static Latch latch = new Latch();
+  private static volatile boolean released = false;
+
+  // The runtime meters go to the server of the base class, so the first export captured there may not have these meters
+  @Rule
+  public final TestGrpcServerRule saturationServer = new TestGrpcServerRule();
+
+  private SchedulerSaturationMeters meters;
+
+  @Override
+  protected String getConfigFile() {
+    return "metrics/scheduler-saturation.xml";
+  }
+
+  @Override
+  protected void doSetUpBeforeMuleContextCreation() throws Exception {
+    super.doSetUpBeforeMuleContextCreation();
+    meters = new SchedulerSaturationMeters(RESOURCE_NAME, OtlpGrpcMetricExporter.builder()
+        .setEndpoint("http://localhost:" + saturationServer.httpPort())
+        .build());
+    SaturationMeasuringProcessingStrategyFactory.measureWith(meters);
+    setProperty(ProcessingStrategyFactory.class.getName(), SaturationMeasuringProcessingStrategyFactory.class.getName());
+  }
+
+  @After
+  public void releaseAndShutdownMeters() {
+    released = true;
+    latch.countDown();
+    clearProperty(ProcessingStrategyFactory.class.getName());
+    SaturationMeasuringProcessingStrategyFactory.measureWith(null);
+    meters.shutdown();
+    saturationServer.reset();
+  }
+
+  @Test
+  public void saturationUnderBackpressure() throws Exception {
+    hangLatch.await();
+
+    // The flow is busy with the hung event, so these triggers are rejected due to backpressure
+    for (int i = 0; i < 2; i++) {
+      locator.find(builderFromStringRepresentation(FLOW + "/source").build())
+          .map(source -> (SchedulerMessageSource) source)
+          .ifPresent(SchedulerMessageSource::trigger);
+    }
+
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        meters.flush();
+        List<ExportedMeter> metrics = saturationServer.getMetrics();
+        if (metrics != null && getTotal(metrics, BACKPRESSURE_REJECTIONS_NAME) > 0
+            && getTotal(metrics, IN_FLIGHT_EVENTS_NAME) > 0) {
+          return true;
+        }
+        // Only the first export is captured, so the next flush is captured after the reset
+        saturationServer.reset();
+        return false;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The saturation of the flow was not exported";
+      }
+    });
+
+    List<ExportedMeter> metrics = saturationServer.getMetrics();
+    assertThat(getPools(verifyMeterExists(QUEUE_DEPTH_NAME, QUEUE_DEPTH_DESCRIPTION, metrics)),
+               containsInAnyOrder(CPU_LITE_POOL, IO_POOL, CPU_INTENSIVE_POOL));
+    assertThat(getPools(verifyMeterExists(IN_FLIGHT_EVENTS_NAME, IN_FLIGHT_EVENTS_DESCRIPTION, metrics)),
+               containsInAnyOrder(CPU_LITE_POOL, IO_POOL, CPU_INTENSIVE_POOL));
+
+    List<ExportedDataPoint> rejections =
+        verifyMeterExists(BACKPRESSURE_REJECTIONS_NAME, BACKPRESSURE_REJECTIONS_DESCRIPTION, metrics);
+    for (ExportedDataPoint rejection : rejections) {
+      assertThat(rejection.getAttributes().get(FLOW_NAME.getKey()), equalTo(FLOW));
+      assertThat(rejection.getValue(), greaterThan(0L));
+    }
+
+    released = true;
+    latch.countDown();
+
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        saturationServer.reset();
+        meters.flush();
+        List<ExportedMeter> metrics = saturationServer.getMetrics();
+        return metrics != null && getTotal(metrics, QUEUE_DEPTH_NAME) == 0 && getTotal(metrics, IN_FLIGHT_EVENTS_NAME) == 0;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The queued and in flight events did not go back to 0 once the hung event was released";
+      }
+    });
+  }
+
+  public static Object hangThread(String payload) throws InterruptedException {
+    if (!released) {
+      hangLatch.countDown();
+      latch.await();
+    }
+
+    return payload;
+  }
+
+  private List<ExportedDataPoint> verifyMeterExists(String metricName, String description, List<ExportedMeter> metrics) {
+    List<ExportedMeter> exportedMetersForMetric =
+        metrics.stream().filter(metric -> metric.getName().equals(metricName)).collect(toList());
+    assertThat(exportedMetersForMetric, hasSize(1));
+    ExportedMeter exportedMeter = exportedMetersForMetric.get(0);
+    assertThat(exportedMeter.getDescription(), equalTo(description));
+    assertThat(exportedMeter.getResourceName(), equalTo(RESOURCE_NAME));
+    assertThat(exportedMeter.getInstrumentName(), equalTo(SATURATION_METRICS_INSTRUMENT_NAME));
+    return exportedMeter.getDataPoints();
+  }
+
+  private static List<String> getPools(List<ExportedDataPoint> dataPoints) {
+    return dataPoints.stream().map(dataPoint -> dataPoint.getAttributes().get(POOL.getKey())).collect(toList());
+  }
+
+  private static long getTotal(List<ExportedMeter> metrics, String metricName) {
+    return metrics.stream()
+        .filter(metric -> metric.getName().equals(metricName))
+        .flatMap(metric -> metric.getDataPoints().stream())
+        .mapToLong(ExportedDataPoint::getValue)
+        .sum();
+  }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics;
+
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_BUFFERED_BYTES_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_BUFFERED_BYTES_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_CLOSED_CURSOR_PROVIDERS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_CLOSED_CURSOR_PROVIDERS_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_LEAKED_CURSOR_PROVIDERS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_LEAKED_CURSOR_PROVIDERS_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_OPEN_CURSOR_PROVIDERS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_OPEN_CURSOR_PROVIDERS_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_PAYLOAD_BYTES_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.FLOW_PAYLOAD_BYTES_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.OPEN_CURSORS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.OPEN_CURSORS_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.OPEN_CURSOR_PROVIDERS_DESCRIPTION;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.OPEN_CURSOR_PROVIDERS_NAME;
+import static org.mule.test.components.metrics.export.StreamingStatisticsMeters.STREAMING_METRICS_INSTRUMENT_NAME;
+
+import static java.util.stream.Collectors.toList;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.streaming.StreamingManager;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.tck.junit4.rule.DynamicPort;
+import org.mule.tck.junit4.rule.SystemProperty;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.metrics.export.ExportedDataPoint;
+import org.mule.test.components.metrics.export.ExportedMeter;
+import org.mule.test.components.metrics.export.StreamingStatisticsMeters;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.inject.Inject;
+
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.qameta.allure.Feature;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+@Feature(PROFILING)
+public class OpenTelemetryStreamingStatisticsTestCase extends AbstractOpenTelemetryMetricsTestCase {
+
+  private static final String RESOURCE_NAME = "OpenTelemetryStreamingStatisticsTestCase#streamingStatistics";
+  private static final String FLOW = "streaming-flow";
+  private static final String LEAKING_FLOW = "leaking-streaming-flow";
+  private static final String LATE_CLOSING_FLOW = "late-closing-streaming-flow";
+  private static final String STREAMED_PAYLOAD = "streamed payload";
+  private static final int FLOW_RUNS = 10;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  private static final List<CursorStreamProvider> lateClosingProviders = new CopyOnWriteArrayList<>();
+
+  @Rule
+  public DynamicPort httpPort = new DynamicPort("httpPort");
+
+  @Rule
+  public SystemProperty streamedPayload = new SystemProperty("streamedPayload", STREAMED_PAYLOAD);
+
+  // The runtime meters go to the server of the base class, so the first export captured there may not have these meters
+  @Rule
+  public final TestGrpcServerRule streamingServer = new TestGrpcServerRule();
+
+  @Inject
+  private StreamingManager streamingManager;
+
+  private StreamingStatisticsMeters meters;
+
+  @Override
+  protected String getConfigFile() {
+    return "metrics/streaming-statistics.xml";
+  }
+
+  @Before
+  public void registerMeters() {
+    meters = new StreamingStatisticsMeters(RESOURCE_NAME, OtlpGrpcMetricExporter.builder()
+        .setEndpoint("http://localhost:" + streamingServer.httpPort())
+        .build(), streamingManager.getStreamingStatistics(), InMemoryCursorStreamConfig.getDefault());
+    meters.register(muleContext.getNotificationManager());
+  }
+
+  @After
+  public void shutdownMeters() {
+    lateClosingProviders.clear();
+    meters.shutdown();
+    streamingServer.reset();
+  }
+
+  @Test
+  public void closedCursorProviders() throws Exception {
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner(FLOW).withPayload(TEST_PAYLOAD).run();
+    }
+
+    // The providers are checked when their events terminate, so no garbage collection is needed to tell them closed
+    probeFlowProviders(FLOW, FLOW_RUNS, 0);
+
+    List<ExportedMeter> metrics = streamingServer.getMetrics();
+    verifyMeterExists(OPEN_CURSOR_PROVIDERS_NAME, OPEN_CURSOR_PROVIDERS_DESCRIPTION, metrics);
+    verifyMeterExists(OPEN_CURSORS_NAME, OPEN_CURSORS_DESCRIPTION, metrics);
+    verifyMeterExists(FLOW_OPEN_CURSOR_PROVIDERS_NAME, FLOW_OPEN_CURSOR_PROVIDERS_DESCRIPTION, metrics);
+    verifyMeterExists(FLOW_CLOSED_CURSOR_PROVIDERS_NAME, FLOW_CLOSED_CURSOR_PROVIDERS_DESCRIPTION, metrics);
+    verifyMeterExists(FLOW_LEAKED_CURSOR_PROVIDERS_NAME, FLOW_LEAKED_CURSOR_PROVIDERS_DESCRIPTION, metrics);
+    verifyMeterExists(FLOW_PAYLOAD_BYTES_NAME, FLOW_PAYLOAD_BYTES_DESCRIPTION, metrics);
+    verifyMeterExists(FLOW_BUFFERED_BYTES_NAME, FLOW_BUFFERED_BYTES_DESCRIPTION, metrics);
+
+    assertThat(getFlowValue(metrics, FLOW, FLOW_LEAKED_CURSOR_PROVIDERS_NAME), equalTo(0L));
+    assertThat(getFlowValue(metrics, FLOW, FLOW_PAYLOAD_BYTES_NAME), equalTo((long) FLOW_RUNS * STREAMED_PAYLOAD.length()));
+    // Nothing is buffered once the providers are closed
+    assertThat(getFlowValue(metrics, FLOW, FLOW_BUFFERED_BYTES_NAME), equalTo(0L));
+  }
+
+  @Test
+  public void leakedCursorProviders() throws Exception {
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner(LEAKING_FLOW).withPayload(TEST_PAYLOAD).run();
+    }
+
+    probeFlowProviders(LEAKING_FLOW, 0, FLOW_RUNS);
+
+    List<ExportedMeter> metrics = streamingServer.getMetrics();
+    assertThat(getFlowValue(metrics, LEAKING_FLOW, FLOW_BUFFERED_BYTES_NAME), equalTo(0L));
+  }
+
+  @Test
+  public void cursorProvidersClosedAfterTheirEventTerminated() throws Exception {
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner(LATE_CLOSING_FLOW).withPayload(TEST_PAYLOAD).run();
+    }
+
+    // The providers are still referenced, so they are checked again on each collection instead of counted as leaked
+    lateClosingProviders.forEach(CursorStreamProvider::close);
+
+    probeFlowProviders(LATE_CLOSING_FLOW, FLOW_RUNS, 0);
+  }
+
+  /**
+   * @return a cursor stream provider that nothing closes, so that it is reclaimed while open.
+   */
+  public static CursorStreamProvider leakingProvider() {
+    return new UnmanagedCursorStreamProvider();
+  }
+
+  /**
+   * @return a cursor stream provider that the test closes once its event terminated.
+   */
+  public static CursorStreamProvider lateClosingProvider() {
+    CursorStreamProvider provider = new UnmanagedCursorStreamProvider();
+    lateClosingProviders.add(provider);
+    return provider;
+  }
+
+  private void probeFlowProviders(String flowName, long closed, long leaked) {
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        if (leaked > 0) {
+          // Reclaims the providers the flow did not close, so they are exported as leaked
+          System.gc();
+        }
+        meters.flush();
+        List<ExportedMeter> metrics = streamingServer.getMetrics();
+        if (metrics != null && getFlowValue(metrics, flowName, FLOW_OPEN_CURSOR_PROVIDERS_NAME) == 0
+            && getFlowValue(metrics, flowName, FLOW_CLOSED_CURSOR_PROVIDERS_NAME) == closed
+            && getFlowValue(metrics, flowName, FLOW_LEAKED_CURSOR_PROVIDERS_NAME) == leaked) {
+          return true;
+        }
+        // Only the first export is captured, so the next flush is captured after the reset
+        streamingServer.reset();
+        return false;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The cursor providers of " + flowName + " were not exported as " + closed + " closed and " + leaked + " leaked";
+      }
+    });
+  }
+
+  private List<ExportedDataPoint> verifyMeterExists(String metricName, String description, List<ExportedMeter> metrics) {
+    List<ExportedMeter> exportedMetersForMetric =
+        metrics.stream().filter(metric -> metric.getName().equals(metricName)).collect(toList());
+    assertThat(exportedMetersForMetric, hasSize(1));
+    ExportedMeter exportedMeter = exportedMetersForMetric.get(0);
+    assertThat(exportedMeter.getDescription(), equalTo(description));
+    assertThat(exportedMeter.getResourceName(), equalTo(RESOURCE_NAME));
+    assertThat(exportedMeter.getInstrumentName(), equalTo(STREAMING_METRICS_INSTRUMENT_NAME));
+    return exportedMeter.getDataPoints();
+  }
+
+  private static long getFlowValue(List<ExportedMeter> metrics, String flowName, String metricName) {
+    return metrics.stream()
+        .filter(metric -> metric.getName().equals(metricName))
+        .flatMap(metric -> metric.getDataPoints().stream())
+        .filter(dataPoint -> flowName.equals(dataPoint.getAttributes().get(FLOW_NAME.getKey())))
+        .mapToLong(ExportedDataPoint::getValue)
+        .sum();
+  }
+
+  private static final class UnmanagedCursorStreamProvider implements CursorStreamProvider {
+
+    private volatile boolean closed;
+
+    @Override
+    public CursorStream openCursor() {
+      throw new UnsupportedOperationException("The provider is only tracked, never read");
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public void releaseResources() {}
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+  }
+
+}
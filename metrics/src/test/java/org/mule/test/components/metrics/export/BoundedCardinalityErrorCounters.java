@@ -0,0 +1,314 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.String.format;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.onSpinWait;
+import static java.time.Duration.ofHours;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static io.opentelemetry.sdk.metrics.InstrumentType.COUNTER;
+import static io.opentelemetry.sdk.metrics.data.AggregationTemporality.DELTA;
+
+import org.mule.runtime.api.message.Error;
+import org.mule.runtime.api.message.ErrorType;
+import org.mule.runtime.metrics.api.error.ErrorIdProvider;
+import org.mule.runtime.metrics.api.error.ErrorMetrics;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+
+/**
+ * Error counters pre-aggregated by error type, flow and failing location, with a bounded number of series per export interval.
+ * <p>
+ * Errors are counted in a {@link ConcurrentHashMap} of {@link LongAdder}s, so counting an error of a series the interval
+ * already has takes no lock and concurrent errors of the same series update different cells. Once an interval has
+ * {@code maxSeriesPerInterval} series, the errors of any other series are counted in the {@link #OTHER} series, so a deployment
+ * raising many unique errors cannot grow the exported data beyond that. Each {@link #flush()} closes the interval,
+ * exports its counts and starts the next one from no series, so the exporter must use delta temporality for counters.
+ * <p>
+ * Each interval keeps the number of errors being counted in it, striped by thread. The flush waits for those in the interval it
+ * closed before reading its counts, so an error counted while the interval is switched is never lost, and it exports it in the
+ * interval it was counted in.
+ * <p>
+ * {@link #decorate(ErrorMetrics)} counts each error the error metrics of the runtime measure, and
+ * {@link #getErrorIdProvider()} gives them the series each error was counted in as its id. The error counter of the runtime is
+ * cumulative, so its ids are not bounded per interval but over the whole life of these counters: the first
+ * {@code maxSeriesPerInterval} ids are kept and every other error gets {@link #OTHER} as its id.
+ */
+public class BoundedCardinalityErrorCounters {
+
+  public static final String ERROR_SERIES_COUNT_NAME = "error-series-count";
+  public static final String ERROR_SERIES_COUNT_DESCRIPTION = "Mule runtime error count per error type, flow and location";
+  public static final String BOUNDED_ERROR_METRICS_INSTRUMENT_NAME = "Mule runtime bounded error metrics";
+  public static final AttributeKey<String> ERROR_TYPE = stringKey("error.type");
+  public static final AttributeKey<String> FLOW_NAME = stringKey("flow.name");
+  public static final AttributeKey<String> LOCATION = stringKey("location");
+  public static final String OTHER = "other";
+
+  private static final AttributeKey<String> SERVICE_NAME = stringKey("service.name");
+  private static final Attributes OTHER_SERIES = Attributes.of(ERROR_TYPE, OTHER, FLOW_NAME, OTHER, LOCATION, OTHER);
+  private static final String UNKNOWN = "unknown";
+  private static final String LOCATION_SEPARATOR = " @";
+
+  private final SdkMeterProvider meterProvider;
+  private final LongCounter errorSeriesCount;
+  private final int maxSeriesPerInterval;
+  private final AtomicReference<Interval> currentInterval = new AtomicReference<>(new Interval());
+  private final Set<String> errorIds = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger errorIdsCount = new AtomicInteger();
+  // The series of the error being measured by the decorated error metrics in each thread
+  private final ThreadLocal<Attributes> measuredSeries = new ThreadLocal<>();
+
+  /**
+   * @param resourceName         the name of the resource the counters are exported for.
+   * @param exporter             the exporter of the counters, with delta temporality for counters.
+   * @param maxSeriesPerInterval the maximum number of series of an interval, besides {@link #OTHER}, and of ids given to the
+   *                             error metrics of the runtime.
+   */
+  public BoundedCardinalityErrorCounters(String resourceName, MetricExporter exporter, int maxSeriesPerInterval) {
+    // Each interval starts from no series, so cumulative temporality would export the counts of the first one forever
+    if (exporter.getAggregationTemporality(COUNTER) != DELTA) {
+      throw new IllegalArgumentException(format("The exporter must use %s temporality for counters, but uses %s", DELTA,
+                                                exporter.getAggregationTemporality(COUNTER)));
+    }
+    // Only exported on flush, which is what closes each interval
+    meterProvider = SdkMeterProvider.builder()
+        .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, resourceName))))
+        .registerMetricReader(PeriodicMetricReader.builder(exporter).setInterval(ofHours(1)).build())
+        .build();
+    errorSeriesCount = meterProvider.get(BOUNDED_ERROR_METRICS_INSTRUMENT_NAME).counterBuilder(ERROR_SERIES_COUNT_NAME)
+        .setDescription(ERROR_SERIES_COUNT_DESCRIPTION).build();
+    this.maxSeriesPerInterval = maxSeriesPerInterval;
+  }
+
+  /**
+   * Counts an error.
+   *
+   * @param errorType        the type of the error.
+   * @param failingComponent the representation of the failing component of the error, {@code null} if unknown.
+   *
+   * @return the series the error was counted in.
+   */
+  public Attributes record(String errorType, String failingComponent) {
+    Attributes series = toSeries(errorType, failingComponent);
+    int stripe = Recorders.getStripe();
+    Interval interval = enterCurrentInterval(stripe);
+    try {
+      LongAdder count = interval.counts.get(series);
+      if (count == null) {
+        if (interval.reserveSeries()) {
+          LongAdder newCount = new LongAdder();
+          count = interval.counts.putIfAbsent(series, newCount);
+          if (count == null) {
+            count = newCount;
+          } else {
+            // Another thread added the series first
+            interval.releaseSeries();
+          }
+        } else {
+          series = OTHER_SERIES;
+          count = interval.counts.computeIfAbsent(OTHER_SERIES, other -> new LongAdder());
+        }
+      }
+      count.increment();
+      return series;
+    } finally {
+      interval.recorders.leave(stripe);
+    }
+  }
+
+  private Interval enterCurrentInterval(int stripe) {
+    while (true) {
+      Interval interval = currentInterval.get();
+      interval.recorders.enter(stripe);
+      if (interval == currentInterval.get()) {
+        return interval;
+      }
+      // The interval was closed before the error entered it, so the flush may have read it already
+      interval.recorders.leave(stripe);
+    }
+  }
+
+  /**
+   * @param errorMetrics the error metrics of the runtime.
+   * @return error metrics that count each error before the given ones measure it.
+   */
+  public ErrorMetrics decorate(ErrorMetrics errorMetrics) {
+    return new ErrorMetrics() {
+
+      @Override
+      public void measure(Error error) {
+        measureIn(record(getErrorType(error), error.getFailingComponent()), () -> errorMetrics.measure(error));
+      }
+
+      @Override
+      public void measure(Throwable error) {
+        measureIn(record(error.getClass().getName(), null), () -> errorMetrics.measure(error));
+      }
+    };
+  }
+
+  private void measureIn(Attributes series, Runnable measure) {
+    measuredSeries.set(series);
+    try {
+      measure.run();
+    } finally {
+      measuredSeries.remove();
+    }
+  }
+
+  /**
+   * @return an {@link ErrorIdProvider} for the error metrics of the runtime that uses the series each error was counted in by
+   *         the {@link #decorate(ErrorMetrics) decorated} error metrics as its id, as long as the ids given so far do not reach
+   *         the maximum.
+   */
+  public ErrorIdProvider getErrorIdProvider() {
+    return new ErrorIdProvider() {
+
+      @Override
+      public String getErrorId(Error error) {
+        return getErrorId(getErrorType(error), error.getFailingComponent());
+      }
+
+      @Override
+      public String getErrorId(Throwable error) {
+        return getErrorId(error.getClass().getName(), null);
+      }
+    };
+  }
+
+  private String getErrorId(String errorType, String failingComponent) {
+    Attributes series = measuredSeries.get();
+    if (series == null) {
+      // Not measured through the decorated error metrics, so it was not counted
+      series = toSeries(errorType, failingComponent);
+    }
+    if (series.equals(OTHER_SERIES)) {
+      return OTHER;
+    }
+    String errorId = getSeriesId(series);
+    if (errorIds.contains(errorId)) {
+      return errorId;
+    }
+    if (errorIdsCount.incrementAndGet() > maxSeriesPerInterval) {
+      errorIdsCount.decrementAndGet();
+      return OTHER;
+    }
+    if (!errorIds.add(errorId)) {
+      // Another thread added the id first
+      errorIdsCount.decrementAndGet();
+    }
+    return errorId;
+  }
+
+  /**
+   * Closes the current interval and exports its counts.
+   */
+  public void flush() {
+    Interval closedInterval = currentInterval.getAndSet(new Interval());
+    closedInterval.recorders.awaitNone();
+    closedInterval.counts.forEach((series, count) -> errorSeriesCount.add(count.sum(), series));
+    meterProvider.forceFlush().join(10, SECONDS);
+  }
+
+  public void shutdown() {
+    meterProvider.shutdown().join(10, SECONDS);
+  }
+
+  private static Attributes toSeries(String errorType, String failingComponent) {
+    String location = UNKNOWN;
+    String flowName = UNKNOWN;
+    if (failingComponent != null) {
+      int locationEnd = failingComponent.indexOf(LOCATION_SEPARATOR);
+      location = locationEnd < 0 ? failingComponent : failingComponent.substring(0, locationEnd);
+      int flowEnd = location.indexOf('/');
+      flowName = flowEnd < 0 ? location : location.substring(0, flowEnd);
+    }
+    return Attributes.of(ERROR_TYPE, errorType, FLOW_NAME, flowName, LOCATION, location);
+  }
+
+  private static String getErrorType(Error error) {
+    ErrorType errorType = error.getErrorType();
+    return errorType.getNamespace() + ":" + errorType.getIdentifier();
+  }
+
+  private static String getSeriesId(Attributes series) {
+    return series.get(ERROR_TYPE) + "|" + series.get(LOCATION);
+  }
+
+  private final class Interval {
+
+    private final Map<Attributes, LongAdder> counts = new ConcurrentHashMap<>();
+    private final AtomicInteger series = new AtomicInteger();
+    private final Recorders recorders = new Recorders();
+
+    private boolean reserveSeries() {
+      if (series.incrementAndGet() > maxSeriesPerInterval) {
+        series.decrementAndGet();
+        return false;
+      }
+      return true;
+    }
+
+    private void releaseSeries() {
+      series.decrementAndGet();
+    }
+  }
+
+  /**
+   * Number of errors being counted in an interval, striped by thread so that concurrent errors do not contend on one counter.
+   * An error leaves the stripe it entered, so no stripe is ever negative and no error entered before the interval was closed
+   * is still being counted once every stripe was seen at 0.
+   */
+  private static final class Recorders {
+
+    private static final int STRIPES = highestOneBit(getRuntime().availableProcessors()) * 2;
+    // Each stripe on its own cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES * PADDING);
+
+    private static int getStripe() {
+      return (int) currentThread().getId() & (STRIPES - 1);
+    }
+
+    private void enter(int stripe) {
+      stripes.incrementAndGet(stripe * PADDING);
+    }
+
+    private void leave(int stripe) {
+      stripes.decrementAndGet(stripe * PADDING);
+    }
+
+    private void awaitNone() {
+      for (int stripe = 0; stripe < STRIPES; stripe++) {
+        while (stripes.get(stripe * PADDING) > 0) {
+          onSpinWait();
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.metrics.v1.NumberDataPoint;
+
+/**
+ * Encapsulates the data of an exported sum or gauge data point.
+ */
+public class ExportedDataPoint {
+
+  private final Map<String, String> attributes = new HashMap<>();
+  private final long value;
+
+  public ExportedDataPoint(NumberDataPoint dataPoint) {
+    for (KeyValue attribute : dataPoint.getAttributesList()) {
+      attributes.put(attribute.getKey(), attribute.getValue().getStringValue());
+    }
+    this.value = dataPoint.getAsInt();
+  }
+
+  public Map<String, String> getAttributes() {
+    return attributes;
+  }
+
+  public long getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.pow;
+import static java.lang.Math.scalb;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.metrics.v1.ExponentialHistogramDataPoint;
+
+/**
+ * Encapsulates the data of an exported exponential histogram data point.
+ */
+public class ExportedHistogramPoint {
+
+  private final Map<String, String> attributes = new HashMap<>();
+  private final long count;
+  private final double sum;
+  private final int scale;
+  private final long zeroCount;
+  private final int positiveOffset;
+  private final List<Long> positiveBucketCounts;
+
+  public ExportedHistogramPoint(ExponentialHistogramDataPoint dataPoint) {
+    for (KeyValue attribute : dataPoint.getAttributesList()) {
+      attributes.put(attribute.getKey(), attribute.getValue().getStringValue());
+    }
+    this.count = dataPoint.getCount();
+    this.sum = dataPoint.getSum();
+    this.scale = dataPoint.getScale();
+    this.zeroCount = dataPoint.getZeroCount();
+    this.positiveOffset = dataPoint.getPositive().getOffset();
+    this.positiveBucketCounts = dataPoint.getPositive().getBucketCountsList();
+  }
+
+  public Map<String, String> getAttributes() {
+    return attributes;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getSum() {
+    return sum;
+  }
+
+  /**
+   * Estimates a quantile from the buckets, as the upper bound of the bucket that holds it.
+   *
+   * @param quantile the quantile, between 0 and 1.
+   *
+   * @return the estimated value, 0 if the quantile falls in the zero bucket.
+   */
+  public double getValueAtQuantile(double quantile) {
+    long rank = (long) ceil(quantile * count);
+    long seen = zeroCount;
+    if (seen >= rank) {
+      return 0;
+    }
+    for (int i = 0; i < positiveBucketCounts.size(); i++) {
+      seen += positiveBucketCounts.get(i);
+      if (seen >= rank) {
+        // Bucket index n holds the values in (base^n, base^(n+1)], where base = 2^(2^-scale)
+        return pow(2, scalb((double) positiveOffset + i + 1, -scale));
+      }
+    }
+    return pow(2, scalb((double) positiveOffset + positiveBucketCounts.size(), -scale));
+  }
+}
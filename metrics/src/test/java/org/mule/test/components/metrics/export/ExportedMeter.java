@@ -6,6 +6,10 @@
  */
 package org.mule.test.components.metrics.export;
 
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+
 /**
  * Encapsulates the data of an exported meter.
  */
@@ -16,6 +20,8 @@ public class ExportedMeter {
   private String instrumentName;
   private String name;
   private long value;
+  private List<ExportedDataPoint> dataPoints = emptyList();
+  private List<ExportedHistogramPoint> histogramPoints = emptyList();
 
   public void setResourceName(String resourceName) {
     this.resourceName = resourceName;
@@ -56,4 +62,26 @@ public class ExportedMeter {
   public void setValue(long value) {
     this.value = value;
   }
+
+  /**
+   * @return the data points of the meter if it is a sum or a gauge, empty otherwise.
+   */
+  public List<ExportedDataPoint> getDataPoints() {
+    return dataPoints;
+  }
+
+  public void setDataPoints(List<ExportedDataPoint> dataPoints) {
+    this.dataPoints = dataPoints;
+  }
+
+  /**
+   * @return the data points of the meter if it is a histogram, empty otherwise.
+   */
+  public List<ExportedHistogramPoint> getHistogramPoints() {
+    return histogramPoints;
+  }
+
+  public void setHistogramPoints(List<ExportedHistogramPoint> histogramPoints) {
+    this.histogramPoints = histogramPoints;
+  }
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static org.mule.runtime.api.notification.MessageProcessorNotification.MESSAGE_PROCESSOR_POST_INVOKE;
+import static org.mule.runtime.api.notification.MessageProcessorNotification.MESSAGE_PROCESSOR_PRE_INVOKE;
+import static org.mule.runtime.api.notification.PipelineMessageNotification.PROCESS_COMPLETE;
+import static org.mule.runtime.api.notification.PipelineMessageNotification.PROCESS_START;
+
+import static java.lang.System.nanoTime;
+import static java.time.Duration.ofHours;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static io.opentelemetry.sdk.metrics.Aggregation.base2ExponentialBucketHistogram;
+import static io.opentelemetry.sdk.metrics.InstrumentType.HISTOGRAM;
+
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotificationListener;
+import org.mule.runtime.api.notification.PipelineMessageNotification;
+import org.mule.runtime.api.notification.PipelineMessageNotificationListener;
+import org.mule.runtime.core.api.context.notification.ServerNotificationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.View;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+
+/**
+ * Records the execution time of each flow, from start to completion, and of each processor, from the flow and processor
+ * notifications, as exponential bucket histograms that the given {@link MetricExporter} exports.
+ * <p>
+ * The flow histogram has a point per flow name and the processor histogram a point per processor location, so the exported
+ * buckets give the percentiles of each one. The start times are kept in a stack per event and flow, or per event and processor
+ * instance, so a flow or processor that is entered again by the same event before completing, as with a recursive flow
+ * reference, is measured from its own start.
+ * <p>
+ * The histograms have their own {@link SdkMeterProvider} rather than being registered in the meter exporter of the runtime,
+ * since the meter API of the runtime has counters but no histogram instrument. They are exported over the same OTLP protocol,
+ * to the endpoint of the given exporter.
+ */
+public class FlowLatencyHistograms {
+
+  public static final String FLOW_DURATION_NAME = "flow-duration";
+  public static final String FLOW_DURATION_DESCRIPTION = "Mule runtime flow execution time";
+  public static final String PROCESSOR_DURATION_NAME = "processor-duration";
+  public static final String PROCESSOR_DURATION_DESCRIPTION = "Mule runtime processor execution time";
+  public static final String LATENCY_METRICS_INSTRUMENT_NAME = "Mule runtime latency metrics";
+  public static final AttributeKey<String> FLOW_NAME = stringKey("flow.name");
+  public static final AttributeKey<String> LOCATION = stringKey("location");
+
+  private static final AttributeKey<String> SERVICE_NAME = stringKey("service.name");
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+
+  private final SdkMeterProvider meterProvider;
+  private final DoubleHistogram flowDuration;
+  private final DoubleHistogram processorDuration;
+  private final Map<Execution, Deque<Long>> flowStarts = new ConcurrentHashMap<>();
+  private final Map<Execution, Deque<Long>> processorStarts = new ConcurrentHashMap<>();
+  private final LongAdder recordedFlowExecutions = new LongAdder();
+
+  public FlowLatencyHistograms(String resourceName, MetricExporter exporter) {
+    // Only exported on flush, so each export has every recorded value
+    this(resourceName, PeriodicMetricReader.builder(exporter).setInterval(ofHours(1)).build());
+  }
+
+  /**
+   * @param resourceName the name of the resource the histograms are exported for.
+   * @param metricReader the reader that exports the histograms, such as the one of the
+   *                     {@link MeterExporterGroupsConfiguration.MeterGroup#HIGH_FREQUENCY} group.
+   */
+  public FlowLatencyHistograms(String resourceName, MetricReader metricReader) {
+    meterProvider = SdkMeterProvider.builder()
+        .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, resourceName))))
+        .registerView(InstrumentSelector.builder().setType(HISTOGRAM).build(),
+                      View.builder().setAggregation(base2ExponentialBucketHistogram()).build())
+        .registerMetricReader(metricReader)
+        .build();
+
+    Meter meter = meterProvider.get(LATENCY_METRICS_INSTRUMENT_NAME);
+    flowDuration = meter.histogramBuilder(FLOW_DURATION_NAME).setDescription(FLOW_DURATION_DESCRIPTION).setUnit("ms").build();
+    processorDuration =
+        meter.histogramBuilder(PROCESSOR_DURATION_NAME).setDescription(PROCESSOR_DURATION_DESCRIPTION).setUnit("ms").build();
+  }
+
+  /**
+   * Starts recording the flows and processors of an artifact.
+   */
+  public void register(ServerNotificationManager notificationManager) {
+    notificationManager.addInterfaceToType(PipelineMessageNotificationListener.class, PipelineMessageNotification.class);
+    notificationManager.addInterfaceToType(MessageProcessorNotificationListener.class, MessageProcessorNotification.class);
+    notificationManager.addListener((PipelineMessageNotificationListener<PipelineMessageNotification>) this::onFlowNotification);
+    notificationManager
+        .addListener((MessageProcessorNotificationListener<MessageProcessorNotification>) this::onProcessorNotification);
+  }
+
+  /**
+   * @return the number of flow executions recorded so far. A flow completes before its completion notification is handled,
+   *         so this tells when the executions that completed have been recorded.
+   */
+  public long getRecordedFlowExecutions() {
+    return recordedFlowExecutions.sum();
+  }
+
+  /**
+   * Exports the recorded values.
+   */
+  public void flush() {
+    meterProvider.forceFlush().join(10, SECONDS);
+  }
+
+  public void shutdown() {
+    meterProvider.shutdown().join(10, SECONDS);
+  }
+
+  private void onFlowNotification(PipelineMessageNotification notification) {
+    Execution execution = new Execution(notification.getEvent().getContext().getId(), notification.getResourceIdentifier());
+    int action = notification.getAction().getActionId();
+    if (action == PROCESS_START) {
+      start(flowStarts, execution);
+    } else if (action == PROCESS_COMPLETE) {
+      Long start = end(flowStarts, execution);
+      if (start != null) {
+        flowDuration.record((nanoTime() - start) / NANOS_PER_MILLI,
+                            Attributes.of(FLOW_NAME, notification.getResourceIdentifier()));
+        recordedFlowExecutions.increment();
+      }
+    }
+  }
+
+  private void onProcessorNotification(MessageProcessorNotification notification) {
+    Execution execution = new Execution(notification.getEvent().getContext().getId(), notification.getComponent());
+    int action = notification.getAction().getActionId();
+    if (action == MESSAGE_PROCESSOR_PRE_INVOKE) {
+      start(processorStarts, execution);
+    } else if (action == MESSAGE_PROCESSOR_POST_INVOKE) {
+      Long start = end(processorStarts, execution);
+      if (start != null) {
+        processorDuration.record((nanoTime() - start) / NANOS_PER_MILLI,
+                                 Attributes.of(LOCATION, notification.getComponent().getLocation().getLocation()));
+      }
+    }
+  }
+
+  private static void start(Map<Execution, Deque<Long>> starts, Execution execution) {
+    starts.compute(execution, (key, executionStarts) -> {
+      Deque<Long> stack = executionStarts != null ? executionStarts : new ArrayDeque<>();
+      stack.push(nanoTime());
+      return stack;
+    });
+  }
+
+  private static Long end(Map<Execution, Deque<Long>> starts, Execution execution) {
+    Long[] start = new Long[1];
+    starts.computeIfPresent(execution, (key, stack) -> {
+      start[0] = stack.pop();
+      return stack.isEmpty() ? null : stack;
+    });
+    return start[0];
+  }
+
+  /**
+   * An event running a flow, by its name, or a processor, by its instance.
+   */
+  private static final class Execution {
+
+    private final String eventId;
+    private final Object executable;
+
+    private Execution(String eventId, Object executable) {
+      this.eventId = eventId;
+      this.executable = executable;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Execution)) {
+        return false;
+      }
+      Execution execution = (Execution) other;
+      return eventId.equals(execution.eventId) && executable.equals(execution.executable);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * eventId.hashCode() + executable.hashCode();
+    }
+  }
+
+}
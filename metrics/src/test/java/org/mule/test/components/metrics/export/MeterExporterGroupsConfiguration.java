@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static java.lang.Long.parseLong;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newBufferedReader;
+import static java.time.Duration.ofSeconds;
+import static java.util.Collections.emptyMap;
+
+import static io.opentelemetry.sdk.metrics.data.AggregationTemporality.CUMULATIVE;
+import static io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector.alwaysCumulative;
+import static io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector.deltaPreferred;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import io.opentelemetry.exporter.otlp.metrics.OtlpGrpcMetricExporter;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * The aggregation temporality and the export interval of each {@link MeterGroup} set in a meter exporter configuration file,
+ * such as {@code conf/meter-exporter.conf}:
+ *
+ * <pre>
+ * mule:
+ *     openTelemetry:
+ *         meter:
+ *             exporter:
+ *                 interval: 60
+ *                 aggregationTemporality: DELTA
+ *                 groups:
+ *                     highFrequency:
+ *                         interval: 1
+ * </pre>
+ *
+ * The intervals are in seconds, and a group without an interval uses the {@code interval} of the exporter. The temporality is
+ * {@code CUMULATIVE} unless set. Placeholders are not resolved, so these keys must have literal values.
+ * <p>
+ * The temporality and the group intervals only apply to the meters exported through {@link #createExporter(String)} and
+ * {@link #createMetricReader(MetricExporter, MeterGroup)}. The meters the runtime exports itself, such as the flow summary
+ * statistics, are exported by its own meter exporter at the {@code interval} of the exporter and stay cumulative.
+ */
+public class MeterExporterGroupsConfiguration {
+
+  private static final String[] EXPORTER_PATH = {"mule", "openTelemetry", "meter", "exporter"};
+  private static final String INTERVAL = "interval";
+  private static final String AGGREGATION_TEMPORALITY = "aggregationTemporality";
+  private static final String GROUPS = "groups";
+
+  /**
+   * Groups of meters exported at their own interval.
+   */
+  public enum MeterGroup {
+
+    /**
+     * Meters that change between two scrapes and whose bursts matter, such as the flow latency or the scheduler queue depth.
+     */
+    HIGH_FREQUENCY("highFrequency");
+
+    private final String key;
+
+    MeterGroup(String key) {
+      this.key = key;
+    }
+  }
+
+  private final Map<String, Object> exporter;
+
+  private MeterExporterGroupsConfiguration(Map<String, Object> exporter) {
+    this.exporter = exporter;
+  }
+
+  /**
+   * Reads a meter exporter configuration file.
+   *
+   * @param configurationFile the path of the file.
+   *
+   * @return the configuration of the file.
+   * @throws IOException if the file could not be read.
+   */
+  public static MeterExporterGroupsConfiguration load(Path configurationFile) throws IOException {
+    Map<String, Object> exporter;
+    try (Reader reader = newBufferedReader(configurationFile, UTF_8)) {
+      exporter = new Yaml().load(reader);
+    }
+    for (String key : EXPORTER_PATH) {
+      exporter = getSection(exporter, key);
+    }
+    return new MeterExporterGroupsConfiguration(exporter);
+  }
+
+  public AggregationTemporality getAggregationTemporality() {
+    Object temporality = exporter.get(AGGREGATION_TEMPORALITY);
+    return temporality == null ? CUMULATIVE : AggregationTemporality.valueOf(temporality.toString());
+  }
+
+  /**
+   * @param group a group of meters.
+   *
+   * @return the interval the meters of the group are exported at.
+   */
+  public Duration getInterval(MeterGroup group) {
+    Object interval = getSection(getSection(exporter, GROUPS), group.key).get(INTERVAL);
+    if (interval == null) {
+      interval = exporter.get(INTERVAL);
+    }
+    return ofSeconds(parseLong(interval.toString()));
+  }
+
+  /**
+   * @param endpoint the endpoint of the collector.
+   *
+   * @return an OTLP exporter that sends the meters with the aggregation temporality of the configuration.
+   */
+  public MetricExporter createExporter(String endpoint) {
+    return OtlpGrpcMetricExporter.builder()
+        .setEndpoint(endpoint)
+        .setAggregationTemporalitySelector(getAggregationTemporality() == CUMULATIVE ? alwaysCumulative() : deltaPreferred())
+        .build();
+  }
+
+  /**
+   * @param exporter the exporter of the meters of the group.
+   * @param group    a group of meters.
+   *
+   * @return a reader that exports the meters of the group at its interval.
+   */
+  public MetricReader createMetricReader(MetricExporter exporter, MeterGroup group) {
+    return PeriodicMetricReader.builder(exporter).setInterval(getInterval(group)).build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getSection(Map<String, Object> section, String key) {
+    Object value = section == null ? null : section.get(key);
+    return value instanceof Map ? (Map<String, Object>) value : emptyMap();
+  }
+
+}
@@ -6,6 +6,8 @@
  */
 package org.mule.test.components.metrics.export;
 
+import static java.util.stream.Collectors.toList;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,7 +46,24 @@ public class OpenTelemetryMetricsTestUtils {
           exportedMeter.setDescription(metrics.getDescription());
           exportedMeter.setInstrumentName(instrumentationLibraryMetrics.getInstrumentationLibrary().getName());
           exportedMeter.setName(metrics.getName());
-          exportedMeter.setValue(metrics.getSum().getDataPoints(0).getAsInt());
+          switch (metrics.getDataCase()) {
+            case EXPONENTIAL_HISTOGRAM:
+              exportedMeter.setHistogramPoints(metrics.getExponentialHistogram().getDataPointsList().stream()
+                  .map(ExportedHistogramPoint::new)
+                  .collect(toList()));
+              break;
+            case GAUGE:
+              exportedMeter.setDataPoints(metrics.getGauge().getDataPointsList().stream()
+                  .map(ExportedDataPoint::new)
+                  .collect(toList()));
+              exportedMeter.setValue(metrics.getGauge().getDataPoints(0).getAsInt());
+              break;
+            default:
+              exportedMeter.setDataPoints(metrics.getSum().getDataPointsList().stream()
+                  .map(ExportedDataPoint::new)
+                  .collect(toList()));
+              exportedMeter.setValue(metrics.getSum().getDataPoints(0).getAsInt());
+          }
           exportedMeters.add(exportedMeter);
         }
       }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.test.components.metrics.export.SchedulerSaturationMeters.getPool;
+
+import static org.slf4j.LoggerFactory.getLogger;
+import static reactor.core.publisher.Flux.defer;
+import static reactor.core.publisher.Flux.from;
+
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
+import org.mule.runtime.api.scheduler.SchedulerBusyException;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.FlowConstruct;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.ReactiveProcessor;
+import org.mule.runtime.core.api.processor.Sink;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategyFactory;
+import org.mule.runtime.core.internal.construct.BackPressureReason;
+import org.mule.runtime.core.internal.processor.strategy.TransactionAwareStreamEmitterProcessingStrategyFactory;
+import org.mule.runtime.core.privileged.event.BaseEventContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+
+/**
+ * Default processing strategy of the runtime that records in the {@link SchedulerSaturationMeters} set with
+ * {@link #measureWith(SchedulerSaturationMeters)} the events dispatched to each scheduler pool, the events rejected due to
+ * backpressure and the tasks rejected by a busy pool.
+ * <p>
+ * The events are counted around the dispatch of the delegate strategy, which keeps its own concurrency and demand. An event is
+ * queued when it reaches the processor, in flight once a thread of the pool takes it, and done when the processor emits it.
+ * A failed or rejected event is not emitted, so it is also done when it terminates, and the events left when the
+ * subscription fails or is cancelled are done then.
+ * <p>
+ * Set as the default processing strategy through the system property named after {@link ProcessingStrategyFactory}, which
+ * creates it with its default constructor.
+ */
+public class SaturationMeasuringProcessingStrategyFactory extends TransactionAwareStreamEmitterProcessingStrategyFactory {
+
+  // Backpressure found when the flow checks whether it can accept an event, which has no BackPressureReason
+  private static final String REJECTED_ON_ACCEPT = "REJECTED_ON_ACCEPT";
+
+  private static volatile SchedulerSaturationMeters meters;
+
+  /**
+   * Sets the meters the strategies created from now on record to.
+   */
+  public static void measureWith(SchedulerSaturationMeters saturationMeters) {
+    meters = saturationMeters;
+  }
+
+  @Override
+  public ProcessingStrategy create(MuleContext muleContext, String schedulersNamePrefix) {
+    ProcessingStrategy processingStrategy = super.create(muleContext, schedulersNamePrefix);
+    SchedulerSaturationMeters saturationMeters = meters;
+    return saturationMeters == null ? processingStrategy
+        : new SaturationMeasuringProcessingStrategy(processingStrategy, saturationMeters);
+  }
+
+  static class SaturationMeasuringProcessingStrategy implements ProcessingStrategy, Startable, Stoppable, Disposable {
+
+    private static final Logger LOGGER = getLogger(SaturationMeasuringProcessingStrategy.class);
+
+    private final ProcessingStrategy delegate;
+    private final SchedulerSaturationMeters meters;
+    private String flowName;
+
+    SaturationMeasuringProcessingStrategy(ProcessingStrategy delegate, SchedulerSaturationMeters meters) {
+      this.delegate = delegate;
+      this.meters = meters;
+    }
+
+    @Override
+    public Sink createSink(FlowConstruct flowConstruct, ReactiveProcessor pipeline) {
+      flowName = flowConstruct.getName();
+      return delegate.createSink(flowConstruct, pipeline);
+    }
+
+    @Override
+    public ReactiveProcessor onPipeline(ReactiveProcessor pipeline) {
+      return delegate.onPipeline(pipeline);
+    }
+
+    @Override
+    public ReactiveProcessor onProcessor(ReactiveProcessor processor) {
+      String pool = getPool(processor.getProcessingType());
+      return publisher -> defer(() -> {
+        PoolEvents events = new PoolEvents(pool, meters);
+        // The delegate dispatches the measured processor to the pool, so it starts once a thread of the pool takes the event
+        ReactiveProcessor dispatched = delegate.onProcessor(new MeasuredProcessor(processor, events));
+        return from(publisher)
+            .doOnNext(events::queued)
+            .transform(dispatched)
+            .doOnNext(events::completed)
+            .doOnError(RejectedExecutionException.class, e -> meters.executionRejected(flowName, pool))
+            .doFinally(signal -> events.leaveAll());
+      });
+    }
+
+    @Override
+    public boolean isSynchronous() {
+      return delegate.isSynchronous();
+    }
+
+    @Override
+    public void checkBackpressureAccepting(CoreEvent event) throws RejectedExecutionException {
+      try {
+        delegate.checkBackpressureAccepting(event);
+      } catch (RejectedExecutionException e) {
+        if (e instanceof SchedulerBusyException || e.getCause() instanceof SchedulerBusyException) {
+          meters.executionRejected(flowName, null);
+        } else {
+          meters.eventRejected(flowName, REJECTED_ON_ACCEPT);
+        }
+        throw e;
+      }
+    }
+
+    @Override
+    public BackPressureReason checkBackpressureEmitting(CoreEvent event) {
+      BackPressureReason reason = delegate.checkBackpressureEmitting(event);
+      if (reason != null) {
+        meters.eventRejected(flowName, reason.name());
+      }
+      return reason;
+    }
+
+    @Override
+    public void start() throws MuleException {
+      startIfNeeded(delegate);
+    }
+
+    @Override
+    public void stop() throws MuleException {
+      stopIfNeeded(delegate);
+    }
+
+    @Override
+    public void dispose() {
+      disposeIfNeeded(delegate, LOGGER);
+    }
+  }
+
+  private static final class MeasuredProcessor implements ReactiveProcessor {
+
+    private final ReactiveProcessor processor;
+    private final PoolEvents events;
+
+    private MeasuredProcessor(ReactiveProcessor processor, PoolEvents events) {
+      this.processor = processor;
+      this.events = events;
+    }
+
+    @Override
+    public Publisher<CoreEvent> apply(Publisher<CoreEvent> publisher) {
+      return from(publisher).doOnNext(events::started).transform(processor);
+    }
+
+    @Override
+    public ProcessingType getProcessingType() {
+      return processor.getProcessingType();
+    }
+  }
+
+  private enum EventState {
+    QUEUED, IN_FLIGHT
+  }
+
+  /**
+   * The events of a subscription to a processor that are queued for its pool or in flight in it, by event context id, so each
+   * event leaves the meters once whichever of its signals comes first.
+   */
+  private static final class PoolEvents {
+
+    private final String pool;
+    private final SchedulerSaturationMeters meters;
+    private final Map<String, EventState> events = new ConcurrentHashMap<>();
+
+    private PoolEvents(String pool, SchedulerSaturationMeters meters) {
+      this.pool = pool;
+      this.meters = meters;
+    }
+
+    private void queued(CoreEvent event) {
+      String id = event.getContext().getId();
+      if (events.putIfAbsent(id, EventState.QUEUED) == null) {
+        meters.eventQueued(pool);
+        ((BaseEventContext) event.getContext()).onTerminated((response, throwable) -> leave(id));
+      }
+    }
+
+    private void started(CoreEvent event) {
+      if (events.replace(event.getContext().getId(), EventState.QUEUED, EventState.IN_FLIGHT)) {
+        meters.eventStarted(pool);
+      }
+    }
+
+    private void completed(CoreEvent event) {
+      if (events.remove(event.getContext().getId(), EventState.IN_FLIGHT)) {
+        meters.eventCompleted(pool);
+      }
+    }
+
+    private void leave(String id) {
+      if (events.remove(id, EventState.QUEUED)) {
+        meters.eventDequeued(pool);
+      } else if (events.remove(id, EventState.IN_FLIGHT)) {
+        meters.eventCompleted(pool);
+      }
+    }
+
+    private void leaveAll() {
+      events.keySet().forEach(this::leave);
+    }
+  }
+
+}
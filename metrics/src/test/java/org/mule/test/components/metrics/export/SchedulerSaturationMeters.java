@@ -0,0 +1,185 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static java.time.Duration.ofHours;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+
+/**
+ * Meters of how saturated the scheduler pools are for an application: the events waiting for a thread of each pool, the events
+ * being processed by the processors dispatched to each pool, the events each flow rejects because of backpressure and the
+ * tasks a pool rejects because it is busy.
+ * <p>
+ * The events in flight are not the busy threads of the pool: a non-blocking processor is in flight from the moment a thread
+ * of the pool takes the event until it completes, even if no thread is running it meanwhile.
+ * <p>
+ * The pools are the ones the processing strategies dispatch to, {@link #CPU_LITE_POOL}, {@link #IO_POOL} and
+ * {@link #CPU_INTENSIVE_POOL}. The values are recorded by the {@link SaturationMeasuringProcessingStrategyFactory} strategies
+ * and exported by the given {@link MetricExporter}.
+ */
+public class SchedulerSaturationMeters {
+
+  public static final String QUEUE_DEPTH_NAME = "scheduler-queue-depth";
+  public static final String QUEUE_DEPTH_DESCRIPTION = "Mule runtime events waiting for a thread of a scheduler pool";
+  public static final String IN_FLIGHT_EVENTS_NAME = "scheduler-in-flight-events";
+  public static final String IN_FLIGHT_EVENTS_DESCRIPTION =
+      "Mule runtime events being processed by the processors dispatched to a scheduler pool";
+  public static final String BACKPRESSURE_REJECTIONS_NAME = "backpressure-rejections";
+  public static final String BACKPRESSURE_REJECTIONS_DESCRIPTION = "Mule runtime events rejected by a flow due to backpressure";
+  public static final String SCHEDULER_REJECTIONS_NAME = "scheduler-rejections";
+  public static final String SCHEDULER_REJECTIONS_DESCRIPTION = "Mule runtime tasks rejected by a busy scheduler pool";
+  public static final String SATURATION_METRICS_INSTRUMENT_NAME = "Mule runtime scheduler saturation metrics";
+  public static final AttributeKey<String> POOL = stringKey("scheduler.pool");
+  public static final AttributeKey<String> FLOW_NAME = stringKey("flow.name");
+  public static final AttributeKey<String> REASON = stringKey("reason");
+
+  public static final String CPU_LITE_POOL = "CPU_LITE";
+  public static final String IO_POOL = "IO";
+  public static final String CPU_INTENSIVE_POOL = "CPU_INTENSIVE";
+
+  private static final AttributeKey<String> SERVICE_NAME = stringKey("service.name");
+
+  private final SdkMeterProvider meterProvider;
+  private final Map<String, AtomicLong> queuedEvents = createPoolCounts();
+  private final Map<String, AtomicLong> inFlightEvents = createPoolCounts();
+  private final LongCounter backpressureRejections;
+  private final LongCounter schedulerRejections;
+
+  public SchedulerSaturationMeters(String resourceName, MetricExporter exporter) {
+    // Only exported on flush, so the gauges are observed at the moment of the flush
+    this(resourceName, PeriodicMetricReader.builder(exporter).setInterval(ofHours(1)).build());
+  }
+
+  /**
+   * @param resourceName the name of the resource the meters are exported for.
+   * @param metricReader the reader that exports the meters, such as the one of the
+   *                     {@link MeterExporterGroupsConfiguration.MeterGroup#HIGH_FREQUENCY} group.
+   */
+  public SchedulerSaturationMeters(String resourceName, MetricReader metricReader) {
+    meterProvider = SdkMeterProvider.builder()
+        .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, resourceName))))
+        .registerMetricReader(metricReader)
+        .build();
+
+    Meter meter = meterProvider.get(SATURATION_METRICS_INSTRUMENT_NAME);
+    meter.gaugeBuilder(QUEUE_DEPTH_NAME).setDescription(QUEUE_DEPTH_DESCRIPTION).ofLongs()
+        .buildWithCallback(measurement -> observe(queuedEvents, measurement));
+    meter.gaugeBuilder(IN_FLIGHT_EVENTS_NAME).setDescription(IN_FLIGHT_EVENTS_DESCRIPTION).ofLongs()
+        .buildWithCallback(measurement -> observe(inFlightEvents, measurement));
+    backpressureRejections =
+        meter.counterBuilder(BACKPRESSURE_REJECTIONS_NAME).setDescription(BACKPRESSURE_REJECTIONS_DESCRIPTION).build();
+    schedulerRejections =
+        meter.counterBuilder(SCHEDULER_REJECTIONS_NAME).setDescription(SCHEDULER_REJECTIONS_DESCRIPTION).build();
+  }
+
+  /**
+   * @param processingType the processing type of a processor.
+   *
+   * @return the scheduler pool the processing strategies dispatch processors of that type to.
+   */
+  public static String getPool(ProcessingType processingType) {
+    switch (processingType) {
+      case BLOCKING:
+      case IO_RW:
+        return IO_POOL;
+      case CPU_INTENSIVE:
+        return CPU_INTENSIVE_POOL;
+      default:
+        return CPU_LITE_POOL;
+    }
+  }
+
+  /**
+   * An event was dispatched to the pool and waits for one of its threads.
+   */
+  public void eventQueued(String pool) {
+    queuedEvents.get(pool).incrementAndGet();
+  }
+
+  /**
+   * A thread of the pool took an event that was waiting for it.
+   */
+  public void eventStarted(String pool) {
+    queuedEvents.get(pool).decrementAndGet();
+    inFlightEvents.get(pool).incrementAndGet();
+  }
+
+  /**
+   * An event that waited for a thread of the pool left it without being taken, because it failed, was rejected or the
+   * subscription was cancelled.
+   */
+  public void eventDequeued(String pool) {
+    queuedEvents.get(pool).decrementAndGet();
+  }
+
+  /**
+   * The processor dispatched to the pool is done with an event, either because it emitted it, failed or was cancelled.
+   */
+  public void eventCompleted(String pool) {
+    inFlightEvents.get(pool).decrementAndGet();
+  }
+
+  /**
+   * The flow rejected an event because of backpressure.
+   */
+  public void eventRejected(String flowName, String reason) {
+    backpressureRejections.add(1, Attributes.of(FLOW_NAME, flowName, REASON, reason));
+  }
+
+  /**
+   * A scheduler pool rejected a task of the flow because it is busy.
+   *
+   * @param pool the pool that rejected the task, or {@code null} if it is not known where the rejection surfaced.
+   */
+  public void executionRejected(String flowName, String pool) {
+    schedulerRejections.add(1, pool == null ? Attributes.of(FLOW_NAME, flowName)
+        : Attributes.of(FLOW_NAME, flowName, POOL, pool));
+  }
+
+  /**
+   * Exports the recorded values.
+   */
+  public void flush() {
+    meterProvider.forceFlush().join(10, SECONDS);
+  }
+
+  public void shutdown() {
+    meterProvider.shutdown().join(10, SECONDS);
+  }
+
+  private static Map<String, AtomicLong> createPoolCounts() {
+    Map<String, AtomicLong> poolCounts = new LinkedHashMap<>();
+    poolCounts.put(CPU_LITE_POOL, new AtomicLong());
+    poolCounts.put(IO_POOL, new AtomicLong());
+    poolCounts.put(CPU_INTENSIVE_POOL, new AtomicLong());
+    return poolCounts;
+  }
+
+  private static void observe(Map<String, AtomicLong> poolCounts, ObservableLongMeasurement measurement) {
+    poolCounts.forEach((pool, count) -> measurement.record(count.get(), Attributes.of(POOL, pool)));
+  }
+
+}
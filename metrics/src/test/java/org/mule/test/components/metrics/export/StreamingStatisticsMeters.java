@@ -0,0 +1,239 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.metrics.export;
+
+import static java.lang.Math.min;
+import static java.time.Duration.ofHours;
+import static java.util.Collections.synchronizedMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import org.mule.runtime.api.event.Event;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.notification.MessageProcessorNotification;
+import org.mule.runtime.api.notification.MessageProcessorNotificationListener;
+import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.context.notification.ServerNotificationManager;
+import org.mule.runtime.core.api.streaming.StreamingStatistics;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.privileged.event.BaseEventContext;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.resources.Resource;
+
+/**
+ * Exports the streaming statistics of an application as meters, so that cursor leaks show in a dashboard instead of only
+ * through {@link StreamingStatistics} in the same process.
+ * <p>
+ * The runtime wide open cursor providers and cursors come from the {@link StreamingStatistics}. Besides, every cursor provider
+ * that a processor receives or returns is tracked for the flow the processor belongs to:
+ * <ul>
+ * <li>the providers of the flow still open,</li>
+ * <li>the ones closed by the time the event that got them terminated,</li>
+ * <li>the ones leaked, that is, reclaimed by the garbage collector while still open,</li>
+ * <li>the declared byte length of their payloads,</li>
+ * <li>and the bytes the open stream providers buffer in memory.</li>
+ * </ul>
+ * A provider is checked when the root context of its event terminates, after the streaming manager closed the providers it
+ * manages. The providers still open then are checked again each time the meters are collected, so the ones closed later are
+ * counted as closed, and only the ones reclaimed before they were seen closed are counted as leaked.
+ * <p>
+ * The buffer of an in-memory stream provider starts at the initial buffer size of its {@link InMemoryCursorStreamConfig} and
+ * grows by its increment, up to its max buffer size, until the stream fits. So the bytes buffered are those of a buffer that
+ * holds the declared length of the payload, or the initial buffer size if the length is not known. Only the in-memory
+ * streaming strategies are available in this runtime, so no provider buffers to disk.
+ */
+public class StreamingStatisticsMeters {
+
+  public static final String OPEN_CURSOR_PROVIDERS_NAME = "streaming-open-cursor-providers";
+  public static final String OPEN_CURSOR_PROVIDERS_DESCRIPTION = "Mule runtime open cursor providers";
+  public static final String OPEN_CURSORS_NAME = "streaming-open-cursors";
+  public static final String OPEN_CURSORS_DESCRIPTION = "Mule runtime open cursors";
+  public static final String FLOW_OPEN_CURSOR_PROVIDERS_NAME = "streaming-flow-open-cursor-providers";
+  public static final String FLOW_OPEN_CURSOR_PROVIDERS_DESCRIPTION = "Mule runtime open cursor providers of a flow";
+  public static final String FLOW_CLOSED_CURSOR_PROVIDERS_NAME = "streaming-flow-closed-cursor-providers";
+  public static final String FLOW_CLOSED_CURSOR_PROVIDERS_DESCRIPTION = "Mule runtime closed cursor providers of a flow";
+  public static final String FLOW_LEAKED_CURSOR_PROVIDERS_NAME = "streaming-flow-leaked-cursor-providers";
+  public static final String FLOW_LEAKED_CURSOR_PROVIDERS_DESCRIPTION =
+      "Mule runtime cursor providers of a flow reclaimed while open";
+  public static final String FLOW_PAYLOAD_BYTES_NAME = "streaming-flow-payload-bytes";
+  public static final String FLOW_PAYLOAD_BYTES_DESCRIPTION =
+      "Mule runtime declared byte length of the payloads of the cursor providers of a flow";
+  public static final String FLOW_BUFFERED_BYTES_NAME = "streaming-flow-buffered-bytes";
+  public static final String FLOW_BUFFERED_BYTES_DESCRIPTION =
+      "Mule runtime bytes buffered in memory by the open cursor stream providers of a flow";
+  public static final String STREAMING_METRICS_INSTRUMENT_NAME = "Mule runtime streaming metrics";
+  public static final AttributeKey<String> FLOW_NAME = stringKey("flow.name");
+
+  private static final AttributeKey<String> SERVICE_NAME = stringKey("service.name");
+
+  private final SdkMeterProvider meterProvider;
+  private final long initialBufferSize;
+  private final long bufferSizeIncrement;
+  private final long maxBufferSize;
+  private final Map<CursorProvider, Boolean> trackedProviders = synchronizedMap(new WeakHashMap<>());
+  private final Set<TrackedProvider> openProviders = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<CursorProvider> reclaimedProviders = new ReferenceQueue<>();
+  private final Map<String, AtomicLong> closedProviders = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> leakedProviders = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> payloadBytes = new ConcurrentHashMap<>();
+
+  /**
+   * @param resourceName the name of the resource the meters are exported for.
+   * @param exporter     the exporter of the meters.
+   * @param statistics   the streaming statistics of the runtime.
+   * @param bufferConfig the config of the in-memory cursor stream providers of the application, the one of the default
+   *                     cursor provider factory unless the flows configure their own.
+   */
+  public StreamingStatisticsMeters(String resourceName, MetricExporter exporter, StreamingStatistics statistics,
+                                   InMemoryCursorStreamConfig bufferConfig) {
+    initialBufferSize = bufferConfig.getInitialBufferSize().toBytes();
+    bufferSizeIncrement = bufferConfig.getBufferSizeIncrement().toBytes();
+    maxBufferSize = bufferConfig.getMaxBufferSize().toBytes();
+
+    // Only exported on flush, so the providers are checked at the moment of the flush
+    meterProvider = SdkMeterProvider.builder()
+        .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, resourceName))))
+        .registerMetricReader(PeriodicMetricReader.builder(exporter).setInterval(ofHours(1)).build())
+        .build();
+
+    Meter meter = meterProvider.get(STREAMING_METRICS_INSTRUMENT_NAME);
+    meter.gaugeBuilder(OPEN_CURSOR_PROVIDERS_NAME).setDescription(OPEN_CURSOR_PROVIDERS_DESCRIPTION).ofLongs()
+        .buildWithCallback(measurement -> measurement.record(statistics.getOpenCursorProvidersCount()));
+    meter.gaugeBuilder(OPEN_CURSORS_NAME).setDescription(OPEN_CURSORS_DESCRIPTION).ofLongs()
+        .buildWithCallback(measurement -> measurement.record(statistics.getOpenCursorsCount()));
+    meter.gaugeBuilder(FLOW_OPEN_CURSOR_PROVIDERS_NAME).setDescription(FLOW_OPEN_CURSOR_PROVIDERS_DESCRIPTION).ofLongs()
+        .buildWithCallback(measurement -> observeOpenProviders(measurement, tracked -> 1L));
+    meter.gaugeBuilder(FLOW_BUFFERED_BYTES_NAME).setDescription(FLOW_BUFFERED_BYTES_DESCRIPTION).setUnit("By").ofLongs()
+        .buildWithCallback(measurement -> observeOpenProviders(measurement, tracked -> tracked.bufferedBytes));
+    meter.counterBuilder(FLOW_CLOSED_CURSOR_PROVIDERS_NAME).setDescription(FLOW_CLOSED_CURSOR_PROVIDERS_DESCRIPTION)
+        .buildWithCallback(measurement -> observePerFlow(closedProviders, measurement));
+    meter.counterBuilder(FLOW_LEAKED_CURSOR_PROVIDERS_NAME).setDescription(FLOW_LEAKED_CURSOR_PROVIDERS_DESCRIPTION)
+        .buildWithCallback(measurement -> observePerFlow(leakedProviders, measurement));
+    meter.counterBuilder(FLOW_PAYLOAD_BYTES_NAME).setDescription(FLOW_PAYLOAD_BYTES_DESCRIPTION).setUnit("By")
+        .buildWithCallback(measurement -> observePerFlow(payloadBytes, measurement));
+  }
+
+  /**
+   * Starts tracking the cursor providers of the flows of an artifact.
+   */
+  public void register(ServerNotificationManager notificationManager) {
+    notificationManager.addInterfaceToType(MessageProcessorNotificationListener.class, MessageProcessorNotification.class);
+    notificationManager
+        .addListener((MessageProcessorNotificationListener<MessageProcessorNotification>) this::onProcessorNotification);
+  }
+
+  /**
+   * Exports the recorded values.
+   */
+  public void flush() {
+    meterProvider.forceFlush().join(10, SECONDS);
+  }
+
+  public void shutdown() {
+    meterProvider.shutdown().join(10, SECONDS);
+  }
+
+  private void onProcessorNotification(MessageProcessorNotification notification) {
+    Event event = notification.getEvent();
+    if (event == null) {
+      return;
+    }
+    TypedValue<?> payload = event.getMessage().getPayload();
+    if (payload.getValue() instanceof CursorProvider
+        && trackedProviders.putIfAbsent((CursorProvider) payload.getValue(), true) == null) {
+      TrackedProvider tracked = track((CursorProvider) payload.getValue(),
+                                      notification.getComponent().getLocation().getRootContainerName(),
+                                      payload.getByteLength());
+      ((BaseEventContext) event.getContext()).getRootContext().onTerminated((response, error) -> checkClosed(tracked));
+    }
+  }
+
+  private TrackedProvider track(CursorProvider provider, String flowName, OptionalLong byteLength) {
+    closedProviders.computeIfAbsent(flowName, flow -> new AtomicLong());
+    leakedProviders.computeIfAbsent(flowName, flow -> new AtomicLong());
+    AtomicLong flowPayloadBytes = payloadBytes.computeIfAbsent(flowName, flow -> new AtomicLong());
+    byteLength.ifPresent(flowPayloadBytes::addAndGet);
+
+    long bufferedBytes = provider instanceof CursorStreamProvider ? getBufferSize(byteLength) : 0;
+    TrackedProvider tracked = new TrackedProvider(provider, flowName, bufferedBytes, reclaimedProviders);
+    openProviders.add(tracked);
+    return tracked;
+  }
+
+  private long getBufferSize(OptionalLong byteLength) {
+    if (!byteLength.isPresent() || byteLength.getAsLong() <= initialBufferSize || bufferSizeIncrement <= 0) {
+      return initialBufferSize;
+    }
+    long increments = (byteLength.getAsLong() - initialBufferSize + bufferSizeIncrement - 1) / bufferSizeIncrement;
+    return min(initialBufferSize + increments * bufferSizeIncrement, maxBufferSize);
+  }
+
+  private void checkClosed(TrackedProvider tracked) {
+    CursorProvider provider = tracked.get();
+    if (provider != null && provider.isClosed() && openProviders.remove(tracked)) {
+      closedProviders.get(tracked.flowName).incrementAndGet();
+    }
+  }
+
+  private void sweepProviders() {
+    openProviders.forEach(this::checkClosed);
+    Reference<? extends CursorProvider> reclaimed;
+    while ((reclaimed = reclaimedProviders.poll()) != null) {
+      if (openProviders.remove(reclaimed)) {
+        leakedProviders.get(((TrackedProvider) reclaimed).flowName).incrementAndGet();
+      }
+    }
+  }
+
+  private void observeOpenProviders(ObservableLongMeasurement measurement, ToLongFunction<TrackedProvider> value) {
+    sweepProviders();
+    Map<String, Long> openPerFlow = new HashMap<>();
+    closedProviders.keySet().forEach(flowName -> openPerFlow.put(flowName, 0L));
+    openProviders.forEach(tracked -> openPerFlow.merge(tracked.flowName, value.applyAsLong(tracked), Long::sum));
+    openPerFlow.forEach((flowName, open) -> measurement.record(open, Attributes.of(FLOW_NAME, flowName)));
+  }
+
+  private void observePerFlow(Map<String, AtomicLong> perFlow, ObservableLongMeasurement measurement) {
+    sweepProviders();
+    perFlow.forEach((flowName, count) -> measurement.record(count.get(), Attributes.of(FLOW_NAME, flowName)));
+  }
+
+  private static final class TrackedProvider extends WeakReference<CursorProvider> {
+
+    private final String flowName;
+    private final long bufferedBytes;
+
+    private TrackedProvider(CursorProvider provider, String flowName, long bufferedBytes,
+                            ReferenceQueue<CursorProvider> queue) {
+      super(provider, queue);
+      this.flowName = flowName;
+      this.bufferedBytes = bufferedBytes;
+    }
+  }
+
+}
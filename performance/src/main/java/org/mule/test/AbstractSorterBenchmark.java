@@ -7,11 +7,15 @@
 package org.mule.test;
 
 
+import static java.util.Collections.reverse;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import org.mule.functional.junit4.FunctionalTestCase;
 import org.mule.runtime.api.el.ExpressionLanguage;
+import org.mule.runtime.api.lifecycle.Disposable;
 import org.mule.runtime.api.lifecycle.Initialisable;
+import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.api.lock.LockFactory;
 import org.mule.runtime.api.store.ObjectStoreManager;
 import org.mule.runtime.config.internal.DependencyGraphLifecycleObjectSorter;
@@ -58,6 +62,7 @@ public class AbstractSorterBenchmark extends FunctionalTestCase {
   protected Map<String, Object> lookupObjects;
   protected DependencyGraphBeanDependencyResolver resolver;
   protected DependencyGraphLifecycleObjectSorter graphSorter;
+  protected MemoizedLifecycleDependencyGraph memoizedGraph;
 
   public static final Class<?>[] allowedTypes = new Class<?>[] {
       LockFactory.class,
@@ -72,10 +77,17 @@ public class AbstractSorterBenchmark extends FunctionalTestCase {
       Initialisable.class
   };
 
+  // initialise, start, stop and dispose
+  protected static final Class<?>[] phaseInterfaces =
+      new Class<?>[] {Initialisable.class, Startable.class, Stoppable.class, Disposable.class};
+
   @Setup
   public void setUp() throws Throwable {
     setUpMuleContext();
+    setUpSorters();
+  }
 
+  protected void setUpSorters() throws Exception {
     springRegistry = getSpringRegistry(getMuleContext());
 
     declaredDependencyResolver = new DeclaredDependencyResolver(springRegistry);
@@ -89,6 +101,8 @@ public class AbstractSorterBenchmark extends FunctionalTestCase {
 
     graphSorter = getGraphSorter(resolver);
     addObjectsToSorter(graphSorter, lookupObjects);
+
+    memoizedGraph = new MemoizedLifecycleDependencyGraph(resolver, getPhaseTypes(Object.class), lookupObjects);
   }
 
   public MuleContext getMuleContext() {
@@ -117,6 +131,57 @@ public class AbstractSorterBenchmark extends FunctionalTestCase {
     return new DependencyGraphLifecycleObjectSorter(resolver, allowedTypes);
   }
 
+  /**
+   * Sorts the objects for every lifecycle phase the way the phases do it today, building the dependency graph from scratch
+   * for each one. Stop and dispose go in the reverse order, as they do in the memoized variant.
+   */
+  protected List<List<Object>> sortAllPhasesRebuildingGraph() {
+    List<List<Object>> sortedPhases = new ArrayList<>();
+    for (Class<?> phaseInterface : phaseInterfaces) {
+      LifecycleObjectSorter phaseSorter = new DependencyGraphLifecycleObjectSorter(resolver, getPhaseTypes(phaseInterface));
+      addObjectsToSorter(phaseSorter, lookupObjects);
+      List<Object> sortedObjects = phaseSorter.getSortedObjects();
+      if (isReversePhase(phaseInterface)) {
+        sortedObjects = new ArrayList<>(sortedObjects);
+        reverse(sortedObjects);
+      }
+      sortedPhases.add(sortedObjects);
+    }
+    return sortedPhases;
+  }
+
+  /**
+   * Sorts the objects for every lifecycle phase reusing a dependency graph resolved once for the whole artifact.
+   */
+  protected List<List<Object>> sortAllPhasesWithMemoizedGraph() {
+    MemoizedLifecycleDependencyGraph artifactGraph =
+        new MemoizedLifecycleDependencyGraph(resolver, getPhaseTypes(Object.class), lookupObjects);
+    return sortAllPhases(artifactGraph);
+  }
+
+  protected List<List<Object>> sortAllPhases(MemoizedLifecycleDependencyGraph artifactGraph) {
+    List<List<Object>> sortedPhases = new ArrayList<>();
+    for (Class<?> phaseInterface : phaseInterfaces) {
+      LifecycleObjectSorter phaseSorter = artifactGraph.forPhase(getPhaseTypes(phaseInterface), isReversePhase(phaseInterface));
+      addObjectsToSorter(phaseSorter, lookupObjects);
+      sortedPhases.add(phaseSorter.getSortedObjects());
+    }
+    return sortedPhases;
+  }
+
+  /**
+   * @return whether the phase goes in the reverse dependency order, as stop and dispose do.
+   */
+  protected static boolean isReversePhase(Class<?> phaseInterface) {
+    return phaseInterface == Stoppable.class || phaseInterface == Disposable.class;
+  }
+
+  private static Class<?>[] getPhaseTypes(Class<?> phaseInterface) {
+    Class<?>[] phaseTypes = allowedTypes.clone();
+    phaseTypes[phaseTypes.length - 1] = phaseInterface;
+    return phaseTypes;
+  }
+
   protected void addObjectsToSorter(LifecycleObjectSorter sorter, Map<String, Object> lookupObjects) {
     List<String> lookupObjectNames = new ArrayList<>();
     // add objects with a dependency graph sorter
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.System.clearProperty;
+import static java.lang.System.getProperty;
+import static java.lang.System.nanoTime;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.openjdk.jmh.annotations.Mode.SingleShotTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.runtime.api.artifact.Registry;
+import org.mule.runtime.api.config.custom.CustomizationService;
+import org.mule.runtime.module.deployment.api.DeploymentListener;
+import org.mule.runtime.module.deployment.impl.internal.builder.ApplicationFileBuilder;
+import org.mule.test.infrastructure.deployment.FakeMuleServer;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to first message of a packaged application deployed into a {@link FakeMuleServer}, for small, medium and large apps
+ * generated by {@link SyntheticAppGenerator}.
+ * <p>
+ * The primary result is the time from the deployment request until a scheduler flow of the app processes its first message.
+ * The {@link DeploymentListener} notifications split it in phases, reported in milliseconds as secondary results:
+ * <ul>
+ * <li>{@code unpackAndClassloading}: the app archive is exploded, its descriptor is read and its classloaders are created.</li>
+ * <li>{@code artifactCreation}: the app is installed and its services are set up.</li>
+ * <li>{@code astParse}: the config is parsed into the artifact AST.</li>
+ * <li>{@code registryBuild}: the registry is built and initialised.</li>
+ * <li>{@code lifecycleStart}: the app is started.</li>
+ * <li>{@code firstMessage}: the first message is processed after the app started.</li>
+ * </ul>
+ * No notification is sent between exploding the archive and creating the classloaders, so both are reported as a single
+ * phase, from the deployment request until the deployment starts. The registry build starts when the registry creates
+ * {@link RegistryBuildProbe}, a custom service registered when the artifact is created, which is after the AST is parsed.
+ */
+@Fork(1)
+@State(Benchmark)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ApplicationDeploymentBenchmark {
+
+  private static final String APP_NAME = "generated-app";
+  private static final String FIRST_MESSAGE_PROPERTY = "generatedApp.firstMessage";
+  private static final long FIRST_MESSAGE_TIMEOUT_NANOS = SECONDS.toNanos(60);
+
+  @Param({"small", "medium", "large"})
+  public String appSize;
+
+  private Path workingDir;
+  private FakeMuleServer muleServer;
+  private URL appUrl;
+  private final PhaseListener phaseListener = new PhaseListener();
+
+  @Setup
+  public void setUp() throws Exception {
+    workingDir = createTempDirectory("deployment-benchmark");
+    File config = workingDir.resolve(APP_NAME + ".xml").toFile();
+    new SyntheticAppGenerator(components(appSize)).withFirstMessageProbe(FIRST_MESSAGE_PROPERTY).writeTo(config.toPath());
+    File appArchive = new ApplicationFileBuilder(APP_NAME).definedBy(config.getAbsolutePath()).getArtifactFile();
+    appUrl = appArchive.toURI().toURL();
+
+    muleServer = new FakeMuleServer(workingDir.resolve("mule-home").toString(), emptyList());
+    muleServer.addDeploymentListener(phaseListener);
+    muleServer.start();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    muleServer.stop();
+    deleteQuietly(workingDir.toFile());
+  }
+
+  @Setup(Level.Invocation)
+  public void resetPhases() {
+    phaseListener.reset();
+    clearProperty(FIRST_MESSAGE_PROPERTY);
+  }
+
+  @TearDown(Level.Invocation)
+  public void undeploy() {
+    muleServer.undeploy(APP_NAME);
+    clearProperty(FIRST_MESSAGE_PROPERTY);
+  }
+
+  @Benchmark
+  @BenchmarkMode(SingleShotTime)
+  public Object deployUntilFirstMessage(DeploymentPhases phases) throws Exception {
+    long deploymentStart = nanoTime();
+    muleServer.deploy(appUrl, APP_NAME);
+    while (getProperty(FIRST_MESSAGE_PROPERTY) == null) {
+      if (nanoTime() - deploymentStart > FIRST_MESSAGE_TIMEOUT_NANOS) {
+        throw new TimeoutException("The first message of " + APP_NAME + " was not processed");
+      }
+      parkNanos(10_000);
+    }
+    phases.record(deploymentStart, phaseListener, nanoTime());
+    return muleServer.findApplication(APP_NAME);
+  }
+
+  private static int components(String appSize) {
+    switch (appSize) {
+      case "small":
+        return 100;
+      case "medium":
+        return 1000;
+      case "large":
+        return 5000;
+      default:
+        throw new IllegalArgumentException("Unknown app size: " + appSize);
+    }
+  }
+
+  /**
+   * Milliseconds spent on each phase of the deployment.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class DeploymentPhases {
+
+    public double unpackAndClassloading;
+    public double artifactCreation;
+    public double astParse;
+    public double registryBuild;
+    public double lifecycleStart;
+    public double firstMessage;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      unpackAndClassloading = 0;
+      artifactCreation = 0;
+      astParse = 0;
+      registryBuild = 0;
+      lifecycleStart = 0;
+      firstMessage = 0;
+    }
+
+    void record(long deploymentRequested, PhaseListener listener, long firstMessageProcessed) {
+      listener.checkAllPhasesNotified();
+      unpackAndClassloading += millis(deploymentRequested, listener.deploymentStarted);
+      artifactCreation += millis(listener.deploymentStarted, listener.artifactCreated);
+      astParse += millis(listener.artifactCreated, RegistryBuildProbe.registryBuildStarted);
+      registryBuild += millis(RegistryBuildProbe.registryBuildStarted, listener.artifactInitialised);
+      lifecycleStart += millis(listener.artifactInitialised, listener.artifactStarted);
+      firstMessage += millis(listener.artifactStarted, firstMessageProcessed);
+    }
+
+    private static double millis(long from, long to) {
+      return NANOSECONDS.toMicros(to - from) / 1000d;
+    }
+  }
+
+  private static class PhaseListener implements DeploymentListener {
+
+    private volatile long deploymentStarted;
+    private volatile long artifactCreated;
+    private volatile long artifactInitialised;
+    private volatile long artifactStarted;
+
+    void reset() {
+      deploymentStarted = 0;
+      artifactCreated = 0;
+      artifactInitialised = 0;
+      artifactStarted = 0;
+      RegistryBuildProbe.registryBuildStarted = 0;
+    }
+
+    void checkAllPhasesNotified() {
+      if (deploymentStarted == 0 || artifactCreated == 0 || RegistryBuildProbe.registryBuildStarted == 0
+          || artifactInitialised == 0 || artifactStarted == 0) {
+        throw new IllegalStateException("Not every deployment phase of " + APP_NAME + " was notified");
+      }
+    }
+
+    @Override
+    public void onDeploymentStart(String artifactName) {
+      if (APP_NAME.equals(artifactName)) {
+        deploymentStarted = nanoTime();
+      }
+    }
+
+    @Override
+    public void onArtifactCreated(String artifactName, CustomizationService customizationService) {
+      if (APP_NAME.equals(artifactName)) {
+        artifactCreated = nanoTime();
+        customizationService.registerCustomServiceClass(RegistryBuildProbe.class.getName(), RegistryBuildProbe.class);
+      }
+    }
+
+    @Override
+    public void onArtifactInitialised(String artifactName, Registry registry) {
+      if (APP_NAME.equals(artifactName)) {
+        artifactInitialised = nanoTime();
+      }
+    }
+
+    @Override
+    public void onArtifactStarted(String artifactName, Registry registry) {
+      if (APP_NAME.equals(artifactName)) {
+        artifactStarted = nanoTime();
+      }
+    }
+  }
+
+  /**
+   * Custom service registered in every deployment of the app, the registry creates it once the config has been parsed.
+   */
+  public static class RegistryBuildProbe {
+
+    private static volatile long registryBuildStarted;
+
+    public RegistryBuildProbe() {
+      registryBuildStarted = nanoTime();
+    }
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.core.api.event.EventContextFactory.create;
+import static org.mule.runtime.dsl.api.component.config.DefaultComponentLocation.from;
+import static org.mule.runtime.module.artifact.api.descriptor.BundleDescriptor.MULE_PLUGIN_CLASSIFIER;
+import static org.mule.test.infrastructure.maven.MavenTestUtils.getMavenLocalRepository;
+
+import static java.io.File.pathSeparator;
+import static java.lang.String.format;
+import static java.lang.System.clearProperty;
+import static java.lang.System.getProperty;
+import static java.lang.System.setProperty;
+import static java.lang.Thread.currentThread;
+import static java.nio.file.Files.createDirectories;
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+
+import static org.apache.commons.io.FileUtils.copyFileToDirectory;
+
+import org.mule.runtime.core.api.construct.Flow;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.deployment.model.api.application.Application;
+import org.mule.runtime.module.deployment.impl.internal.builder.ApplicationFileBuilder;
+import org.mule.runtime.module.deployment.impl.internal.builder.JarFileBuilder;
+import org.mule.test.infrastructure.deployment.FakeMuleServer;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * An application deployed into a {@link FakeMuleServer} with the connector plugins and services of the benchmark classpath, so
+ * benchmarks can run flows that use the real connectors instead of reimplementing what they do.
+ * <p>
+ * The application is packaged as a lightweight package, the plugins and their dependencies are resolved by the runtime from the
+ * local Maven repository, the same way they are for an application deployed into a standalone runtime. Flows are run through
+ * the registry of the application, as {@code FlowRunner} does in functional tests, so no source is part of the measurement.
+ */
+public class ConnectorApplication {
+
+  private static final String MAVEN_REPOSITORY_LOCATION_PROPERTY = "muleRuntimeConfig.maven.repositoryLocation";
+  private static final String MULE_SERVICE_CLASSIFIER = "mule-service";
+
+  private final String name;
+  private final ApplicationFileBuilder applicationFileBuilder;
+  private FakeMuleServer muleServer;
+  private Application application;
+
+  /**
+   * @param name   the name of the application
+   * @param config the config of the application
+   */
+  public ConnectorApplication(String name, Path config) {
+    this.name = name;
+    this.applicationFileBuilder = new ApplicationFileBuilder(name).definedBy(config.toAbsolutePath().toString())
+        .usingLightWeightPackage();
+  }
+
+  /**
+   * Adds the given plugin, in the version found in the benchmark classpath, as a dependency of the application.
+   */
+  public ConnectorApplication dependingOnPlugin(String groupId, String artifactId) {
+    File pluginJar = findInClasspath(artifactId, MULE_PLUGIN_CLASSIFIER);
+    applicationFileBuilder.dependingOn(new JarFileBuilder(artifactId, pluginJar)
+        .withGroupId(groupId)
+        .withVersion(versionOf(pluginJar, artifactId, MULE_PLUGIN_CLASSIFIER))
+        .withClassifier(MULE_PLUGIN_CLASSIFIER));
+    return this;
+  }
+
+  /**
+   * Starts a {@link FakeMuleServer} in {@code workingDir}, with the HTTP and DataWeave services, and deploys the application
+   * into it.
+   */
+  public void deploy(Path workingDir) throws Exception {
+    setProperty(MAVEN_REPOSITORY_LOCATION_PROPERTY, getMavenLocalRepository().getAbsolutePath());
+    Path muleHome = workingDir.resolve("mule-home");
+    File servicesDir = createDirectories(muleHome.resolve("services")).toFile();
+    copyFileToDirectory(findInClasspath("mule-service-http", MULE_SERVICE_CLASSIFIER), servicesDir);
+    copyFileToDirectory(findInClasspath("mule-service-weave", MULE_SERVICE_CLASSIFIER), servicesDir);
+
+    muleServer = new FakeMuleServer(muleHome.toString(), emptyList());
+    muleServer.start();
+    muleServer.deploy(applicationFileBuilder.getArtifactFile().toURI().toURL(), name);
+    application = muleServer.findApplication(name);
+    if (application == null) {
+      throw new IllegalStateException(format("Application '%s' was not deployed", name));
+    }
+  }
+
+  public void undeploy() throws Exception {
+    try {
+      if (muleServer != null) {
+        muleServer.stop();
+      }
+    } finally {
+      clearProperty(MAVEN_REPOSITORY_LOCATION_PROPERTY);
+    }
+  }
+
+  /**
+   * Runs the flow {@code flowName} of the application with the given payload and variables and waits for its result.
+   */
+  public CoreEvent run(String flowName, Object payload, Map<String, ?> variables) throws Exception {
+    Flow flow = application.getArtifactContext().getRegistry().<Flow>lookupByName(flowName)
+        .orElseThrow(() -> new IllegalArgumentException(format("Flow '%s' not found in '%s'", flowName, name)));
+    CoreEvent.Builder event = CoreEvent.builder(create(flow, from(name))).message(of(payload));
+    variables.forEach(event::addVariable);
+
+    Thread thread = currentThread();
+    ClassLoader previousClassLoader = thread.getContextClassLoader();
+    thread.setContextClassLoader(application.getArtifactClassLoader().getClassLoader());
+    try {
+      return flow.process(event.build());
+    } finally {
+      thread.setContextClassLoader(previousClassLoader);
+    }
+  }
+
+  private static File findInClasspath(String artifactId, String classifier) {
+    return stream(getProperty("java.class.path").split(pathSeparator))
+        .map(File::new)
+        .filter(file -> file.getName().startsWith(artifactId + "-") && file.getName().endsWith("-" + classifier + ".jar"))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException(format("No %s %s found in the classpath", artifactId, classifier)));
+  }
+
+  private static String versionOf(File jar, String artifactId, String classifier) {
+    String fileName = jar.getName();
+    return fileName.substring(artifactId.length() + 1, fileName.length() - classifier.length() - ".jar".length() - 1);
+  }
+
+}
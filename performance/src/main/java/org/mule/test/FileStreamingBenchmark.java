@@ -0,0 +1,199 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.Math.min;
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.lang.Thread.currentThread;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.newOutputStream;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.IOUtils.copyLarge;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * File I/O benchmark for large payloads, comparing the streaming strategies of the File connector operations.
+ * <p>
+ * The operations run in the flows of {@code benchmark/file-streaming-benchmark.xml}, deployed with the File connector as a
+ * {@link ConnectorApplication}. {@code read} reads a file with {@code file:read} and drains its content, {@code write} writes
+ * a generated stream with {@code file:write}, and {@code readWrite} reads a file and writes its content into another one. Each
+ * flow has a variant per streaming strategy of the read.
+ * <p>
+ * Throughput is reported in MB/s as the {@code megabytes} secondary result. Run with
+ * {@code -prof org.mule.test.HeapHighWaterMarkProfiler} to also get the heap high-water mark.
+ * <p>
+ * {@code repeatable-file-store} is not available in the Community Edition runtime these benchmarks use, so only
+ * {@code repeatable-in-memory} and {@code non-repeatable} are compared.
+ */
+@Fork(1)
+@State(Benchmark)
+@OutputTimeUnit(SECONDS)
+public class FileStreamingBenchmark {
+
+  private static final String APP_NAME = "file-streaming-benchmark";
+  private static final String REPEATABLE_IN_MEMORY = "repeatable-in-memory";
+  private static final String NON_REPEATABLE = "non-repeatable";
+  private static final String WORKING_DIR_SYSTEM_PROPERTY = "workingDir";
+  private static final String BUFFER_SIZE_INCREMENT_SYSTEM_PROPERTY = "bufferSizeIncrement";
+  private static final String MAX_BUFFER_SIZE_SYSTEM_PROPERTY = "maxBufferSize";
+  private static final String SOURCE_FILE = "source";
+  private static final double BYTES_PER_MB = 1024 * 1024;
+  private static final int MAX_BUFFER_INCREMENT = 512 * 1024;
+
+  @Param({"1024", "1048576", "104857600"})
+  public int payloadSize;
+
+  @Param({REPEATABLE_IN_MEMORY, NON_REPEATABLE})
+  public String streamingStrategy;
+
+  private Path appDir;
+  private ConnectorApplication application;
+
+  @Setup
+  public void setUp() throws Exception {
+    appDir = createTempDirectory(APP_NAME);
+    Path workingDir = createDirectories(appDir.resolve("files"));
+    try (InputStream content = new GeneratedInputStream(payloadSize);
+        OutputStream out = newOutputStream(workingDir.resolve(SOURCE_FILE))) {
+      copyLarge(content, out);
+    }
+
+    setProperty(WORKING_DIR_SYSTEM_PROPERTY, workingDir.toAbsolutePath().toString());
+    // The buffer must be able to hold the whole payload, as the connector needs for a repeatable read
+    setProperty(BUFFER_SIZE_INCREMENT_SYSTEM_PROPERTY, Integer.toString(min(payloadSize, MAX_BUFFER_INCREMENT)));
+    setProperty(MAX_BUFFER_SIZE_SYSTEM_PROPERTY, Integer.toString(payloadSize));
+
+    Path config = appDir.resolve(APP_NAME + ".xml");
+    try (InputStream configResource = FileStreamingBenchmark.class.getResourceAsStream("/benchmark/" + APP_NAME + ".xml")) {
+      copy(configResource, config);
+    }
+    application = new ConnectorApplication(APP_NAME, config)
+        .dependingOnPlugin("org.mule.connectors", "mule-file-connector");
+    application.deploy(appDir);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    try {
+      application.undeploy();
+    } finally {
+      clearProperty(WORKING_DIR_SYSTEM_PROPERTY);
+      clearProperty(BUFFER_SIZE_INCREMENT_SYSTEM_PROPERTY);
+      clearProperty(MAX_BUFFER_SIZE_SYSTEM_PROPERTY);
+      deleteQuietly(appDir.toFile());
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Throughput)
+  public long read(TransferredBytes transferred) throws Exception {
+    Number read = (Number) application.run("read-" + streamingStrategy, null, singletonMap("source", SOURCE_FILE))
+        .getMessage().getPayload().getValue();
+    return transferred.add(read.longValue());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Throughput)
+  public long write(TransferredBytes transferred) throws Exception {
+    application.run("write", new GeneratedInputStream(payloadSize), singletonMap("target", targetFile()));
+    return transferred.add(payloadSize);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Throughput)
+  public long readWrite(TransferredBytes transferred) throws Exception {
+    Map<String, String> variables = new HashMap<>();
+    variables.put("source", SOURCE_FILE);
+    variables.put("target", targetFile());
+    application.run("read-write-" + streamingStrategy, null, variables);
+    return transferred.add(payloadSize);
+  }
+
+  private static String targetFile() {
+    return "target-" + currentThread().getId();
+  }
+
+  /**
+   * Megabytes moved by each thread, reported as MB/s.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class TransferredBytes {
+
+    public double megabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      megabytes = 0;
+    }
+
+    long add(long bytes) {
+      megabytes += bytes / BYTES_PER_MB;
+      return bytes;
+    }
+  }
+
+  /**
+   * Stream of the given size that doesn't hold its content in memory.
+   */
+  private static class GeneratedInputStream extends InputStream {
+
+    private long remaining;
+
+    GeneratedInputStream(long size) {
+      this.remaining = size;
+    }
+
+    @Override
+    public int read() {
+      if (remaining <= 0) {
+        return -1;
+      }
+      remaining--;
+      return 'a';
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int read = (int) Math.min(len, remaining);
+      for (int i = off; i < off + read; i++) {
+        b[i] = 'a';
+      }
+      remaining -= read;
+      return read;
+    }
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.mule.runtime.core.api.processor.Processor;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Runs the IO and blocking processors with enough concurrent producers to saturate the IO scheduler, so the processing
+ * strategies that use it can be compared with {@link FlowVirtualThreadProcessorBenchmark}.
+ */
+@OutputTimeUnit(MILLISECONDS)
+@Threads(32)
+public class FlowIOHighConcurrencyProcessorBenchmark extends AbstractFlowBenchmark {
+
+  @Param({"iorwSmall", "blocking2"})
+  public String processor;
+
+  @Override
+  protected List<Processor> getMessageProcessors() {
+    return singletonList("blocking2".equals(processor) ? blocking2Processor : iorwSmall);
+  }
+
+  @Override
+  protected int getStreamIterations() {
+    return 100;
+  }
+
+}
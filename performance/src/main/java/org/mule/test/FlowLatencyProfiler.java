@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.System.nanoTime;
+import static java.util.Collections.emptyList;
+
+import static org.openjdk.jmh.results.AggregationPolicy.MAX;
+import static org.openjdk.jmh.results.ResultRole.SECONDARY;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.Aggregator;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.util.SingletonStatistics;
+
+/**
+ * JMH profiler that reports the latency percentiles of the events processed by an {@link AbstractFlowBenchmark}, from the
+ * moment the event is triggered on the source until the flow completes it.
+ * <p>
+ * Enable it with {@code -prof org.mule.test.FlowLatencyProfiler}. Latencies are only recorded while it is enabled, so the
+ * benchmarks are not affected otherwise.
+ * <p>
+ * Each percentile result carries the histogram of its iteration, and the results of several iterations or forks are
+ * aggregated by merging their histograms, so the reported percentiles are those of all the recorded events rather than an
+ * average of percentiles.
+ */
+public class FlowLatencyProfiler implements InternalProfiler {
+
+  private static final String UNIT = "us";
+  private static final double NANOS_PER_UNIT = 1000.0;
+
+  private static final Recorder recorder = new Recorder(3);
+  private static volatile boolean enabled;
+
+  /**
+   * @return the timestamp to pass to {@link #recordLatency(long)} once the event completes, or {@code 0} if the profiler is
+   *         not enabled.
+   */
+  static long startLatency() {
+    return enabled ? nanoTime() : 0;
+  }
+
+  static void recordLatency(long start) {
+    if (start != 0) {
+      recorder.recordValue(nanoTime() - start);
+    }
+  }
+
+  @Override
+  public String getDescription() {
+    return "Flow event latency percentiles, from source trigger to completion";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    recorder.reset();
+    enabled = true;
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                     IterationResult result) {
+    enabled = false;
+    Histogram histogram = recorder.getIntervalHistogram();
+    if (histogram.getTotalCount() == 0) {
+      return emptyList();
+    }
+
+    List<Result> results = new ArrayList<>();
+    results.add(new PercentileResult("latency.p50", histogram, 50));
+    results.add(new PercentileResult("latency.p99", histogram, 99));
+    results.add(new PercentileResult("latency.p99.9", histogram, 99.9));
+    results.add(new ScalarResult("latency.max", histogram.getMaxValue() / NANOS_PER_UNIT, UNIT, MAX));
+    return results;
+  }
+
+  /**
+   * A latency percentile of the events of a histogram, aggregated with other results of the same label by merging their
+   * histograms.
+   */
+  static final class PercentileResult extends Result<PercentileResult> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Histogram histogram;
+    private final double percentile;
+
+    PercentileResult(String label, Histogram histogram, double percentile) {
+      super(SECONDARY, label, new SingletonStatistics(histogram.getValueAtPercentile(percentile) / NANOS_PER_UNIT), UNIT,
+            MAX);
+      this.histogram = histogram;
+      this.percentile = percentile;
+    }
+
+    @Override
+    protected Aggregator<PercentileResult> getThreadAggregator() {
+      return PercentileResult::merge;
+    }
+
+    @Override
+    protected Aggregator<PercentileResult> getIterationAggregator() {
+      return PercentileResult::merge;
+    }
+
+    private static PercentileResult merge(Collection<PercentileResult> results) {
+      PercentileResult first = results.iterator().next();
+      Histogram merged = new Histogram(first.histogram.getNumberOfSignificantValueDigits());
+      results.forEach(result -> merged.add(result.histogram));
+      return new PercentileResult(first.getLabel(), merged, first.percentile);
+    }
+  }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.String.format;
+import static java.lang.String.join;
+import static java.lang.System.getProperty;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.write;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.Locale.ROOT;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the {@code processSourceStream} flow benchmarks for every processing strategy over a range of thread counts and writes
+ * the resulting scaling matrix as {@code flow-scaling.csv} and {@code flow-scaling.json}.
+ * <p>
+ * For each benchmark and processing strategy the report has the throughput in events per second for each thread count, the
+ * speedup relative to the lowest thread count, and the efficiency, which is the speedup divided by the relative thread count.
+ * <p>
+ * It is configured through system properties:
+ * <ul>
+ * <li>{@code benchmarks}: comma separated simple names of the {@link AbstractFlowBenchmark} subclasses to run.</li>
+ * <li>{@code threads}: comma separated thread counts, {@code 1,2,4,8,16,32} by default.</li>
+ * <li>{@code processingStrategies}: comma separated processing strategy factories, all the ones of
+ * {@link AbstractFlowBenchmark#processingStrategyFactory} by default.</li>
+ * <li>{@code outputDir}: folder where the report is written, {@code target/flow-scaling} by default.</li>
+ * <li>{@code warmupIterations}, {@code measurementIterations} and {@code forks}: passed to JMH.</li>
+ * </ul>
+ * Run it from the {@code benchmark-jar} assembly with {@code java -cp <jar> org.mule.test.FlowScalingBenchmarkRunner}.
+ */
+public class FlowScalingBenchmarkRunner {
+
+  private static final String PROCESSING_STRATEGY_PARAM = "processingStrategyFactory";
+  private static final String BENCHMARK_METHOD = "processSourceStream";
+
+  private static final String DEFAULT_BENCHMARKS = join(",",
+                                                        FlowNullProcessorBenchmark.class.getSimpleName(),
+                                                        FlowCPULightProcessorBenchmark.class.getSimpleName(),
+                                                        FlowCPULight2ProcessorBenchmark.class.getSimpleName(),
+                                                        FlowBlockingProcessorBenchmark.class.getSimpleName(),
+                                                        FlowBlocking2ProcessorBenchmark.class.getSimpleName(),
+                                                        FlowIOSmallProcessorBenchmark.class.getSimpleName(),
+                                                        FlowIOMediumProcessorBenchmark.class.getSimpleName(),
+                                                        FlowIOLargeProcessorBenchmark.class.getSimpleName(),
+                                                        FlowLightMixProcessorBenchmark.class.getSimpleName(),
+                                                        FlowHeavyMixProcessorBenchmark.class.getSimpleName());
+  private static final String DEFAULT_THREADS = "1,2,4,8,16,32";
+
+  public static void main(String[] args) throws Exception {
+    List<String> benchmarks = splitProperty("benchmarks", DEFAULT_BENCHMARKS);
+    List<Integer> threads = splitProperty("threads", DEFAULT_THREADS).stream().map(Integer::valueOf).sorted().collect(toList());
+    List<String> processingStrategies = splitProperty("processingStrategies", join(",", defaultProcessingStrategies()));
+    Path outputDir = Paths.get(getProperty("outputDir", "target/flow-scaling"));
+
+    List<ScalingEntry> entries = new ArrayList<>();
+    for (String benchmark : benchmarks) {
+      entries.addAll(sweep(benchmark, threads, processingStrategies));
+    }
+
+    createDirectories(outputDir);
+    write(outputDir.resolve("flow-scaling.csv"), toCsv(entries).getBytes(UTF_8));
+    write(outputDir.resolve("flow-scaling.json"), toJson(entries).getBytes(UTF_8));
+  }
+
+  private static List<ScalingEntry> sweep(String benchmark, List<Integer> threads, List<String> processingStrategies)
+      throws RunnerException, ReflectiveOperationException {
+    Class<?> benchmarkClass = Class.forName(FlowScalingBenchmarkRunner.class.getPackage().getName() + "." + benchmark);
+    int eventsPerOperation = ((AbstractFlowBenchmark) benchmarkClass.getConstructor().newInstance()).getStreamIterations();
+
+    // Keyed by processing strategy, keeping the thread counts in ascending order.
+    Map<String, List<ScalingEntry>> byStrategy = new LinkedHashMap<>();
+    for (int threadCount : threads) {
+      ChainedOptionsBuilder options = new OptionsBuilder()
+          .include(benchmarkClass.getName() + "." + BENCHMARK_METHOD + "$")
+          .param(PROCESSING_STRATEGY_PARAM, processingStrategies.toArray(new String[0]))
+          .mode(Throughput)
+          .timeUnit(SECONDS)
+          .threads(threadCount)
+          .shouldFailOnError(false);
+      integerProperty("warmupIterations").ifPresent(options::warmupIterations);
+      integerProperty("measurementIterations").ifPresent(options::measurementIterations);
+      integerProperty("forks").ifPresent(options::forks);
+
+      for (RunResult result : new Runner(options.build()).run()) {
+        String strategy = result.getParams().getParam(PROCESSING_STRATEGY_PARAM);
+        List<ScalingEntry> strategyEntries = byStrategy.computeIfAbsent(strategy, s -> new ArrayList<>());
+        double eventsPerSecond = result.getPrimaryResult().getScore() * eventsPerOperation;
+        double errorPerSecond = result.getPrimaryResult().getScoreError() * eventsPerOperation;
+        ScalingEntry baseline = strategyEntries.isEmpty() ? null : strategyEntries.get(0);
+        strategyEntries.add(new ScalingEntry(benchmark, strategy, threadCount, eventsPerSecond, errorPerSecond, baseline));
+      }
+    }
+
+    return byStrategy.values().stream().flatMap(List::stream).collect(toList());
+  }
+
+  private static String[] defaultProcessingStrategies() throws NoSuchFieldException {
+    return AbstractFlowBenchmark.class.getField(PROCESSING_STRATEGY_PARAM).getAnnotation(Param.class).value();
+  }
+
+  private static List<String> splitProperty(String name, String defaultValue) {
+    return stream(getProperty(name, defaultValue).split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(toList());
+  }
+
+  private static Optional<Integer> integerProperty(String name) {
+    return Optional.ofNullable(getProperty(name)).map(value -> parseInt(value.trim()));
+  }
+
+  private static String toCsv(List<ScalingEntry> entries) {
+    StringBuilder csv = new StringBuilder(join(",", asList("benchmark", "processingStrategy", "threads", "eventsPerSecond",
+                                                           "error", "speedup", "efficiency")))
+        .append('\n');
+    for (ScalingEntry entry : entries) {
+      csv.append(format(ROOT, "%s,%s,%d,%.3f,%.3f,%.4f,%.4f%n", entry.benchmark, entry.processingStrategy, entry.threads,
+                        entry.eventsPerSecond, entry.error, entry.speedup, entry.efficiency));
+    }
+    return csv.toString();
+  }
+
+  private static String toJson(List<ScalingEntry> entries) {
+    StringBuilder json = new StringBuilder("[\n");
+    for (int i = 0; i < entries.size(); i++) {
+      ScalingEntry entry = entries.get(i);
+      json.append(format(ROOT,
+                         "  {\"benchmark\": \"%s\", \"processingStrategy\": \"%s\", \"threads\": %d, "
+                             + "\"eventsPerSecond\": %.3f, \"error\": %.3f, \"speedup\": %.4f, \"efficiency\": %.4f}",
+                         entry.benchmark, entry.processingStrategy, entry.threads, entry.eventsPerSecond, entry.error,
+                         entry.speedup, entry.efficiency));
+      json.append(i < entries.size() - 1 ? ",\n" : "\n");
+    }
+    return json.append("]\n").toString();
+  }
+
+  private static class ScalingEntry {
+
+    private final String benchmark;
+    private final String processingStrategy;
+    private final int threads;
+    private final double eventsPerSecond;
+    private final double error;
+    private final double speedup;
+    private final double efficiency;
+
+    private ScalingEntry(String benchmark, String processingStrategy, int threads, double eventsPerSecond, double error,
+                         ScalingEntry baseline) {
+      this.benchmark = benchmark;
+      this.processingStrategy = processingStrategy;
+      this.threads = threads;
+      this.eventsPerSecond = eventsPerSecond;
+      this.error = Double.isNaN(error) ? 0 : error;
+      if (baseline == null) {
+        this.speedup = 1;
+        this.efficiency = 1;
+      } else {
+        this.speedup = eventsPerSecond / baseline.eventsPerSecond;
+        this.efficiency = speedup / ((double) threads / baseline.threads);
+      }
+    }
+  }
+
+}
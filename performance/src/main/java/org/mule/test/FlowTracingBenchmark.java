@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.runtime.api.component.AbstractComponent.LOCATION_KEY;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_CORE_EXPORTER_FACTORY_KEY;
+import static org.mule.runtime.dsl.api.component.config.DefaultComponentLocation.from;
+import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_EXPORTER_DEFAULT_TRACING_LEVEL;
+import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_EXPORTER_ENABLED;
+import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER;
+import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER_ARG;
+
+import static java.lang.Double.parseDouble;
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.mule.runtime.api.component.AbstractComponent;
+import org.mule.runtime.api.config.custom.ServiceConfigurator;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.tracer.exporter.impl.OpenTelemetrySpanExporterFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Overhead of creating and exporting spans for each tracing level and sampler ratio, running a flow of located processors so
+ * each one gets its span when the level traces it.
+ * <p>
+ * Spans go through the OpenTelemetry exporter built by {@link OpenTelemetrySpanExporterFactory}, which hands them to an
+ * in-process sink instead of a collector, so only the cost inside the runtime is measured. The {@code DISABLED} level is the
+ * baseline without the exporter, and as nothing is sampled without it, it runs once instead of once per ratio. Run with
+ * {@code -prof gc} to get the allocation per operation, and narrow the processing strategies with
+ * {@code -p processingStrategyFactory=...}.
+ * <p>
+ * The sink counts the spans it receives, and the teardown fails when a level with a ratio above 0 exported none, so a
+ * configuration that silently stops exporting doesn't show up as a speedup.
+ */
+@OutputTimeUnit(MILLISECONDS)
+public class FlowTracingBenchmark extends AbstractFlowBenchmark {
+
+  private static final String DISABLED = "DISABLED";
+  private static final String TRACE_ID_RATIO_SAMPLER = "traceidratio";
+  private static final String TRACING_SEPARATOR = ":";
+  private static final int PROCESSORS = 5;
+
+  /**
+   * The tracing level and the sampler ratio, as {@code level:ratio}, or {@code DISABLED} alone.
+   */
+  @Param({DISABLED,
+      "OVERVIEW:0", "OVERVIEW:0.01", "OVERVIEW:1.0",
+      "MONITORING:0", "MONITORING:0.01", "MONITORING:1.0",
+      "DEBUG:0", "DEBUG:0.01", "DEBUG:1.0"})
+  public String tracing;
+
+  private boolean exportExpected;
+
+  @Override
+  @Setup
+  public void setup() throws Exception {
+    String[] levelAndRatio = tracing.split(TRACING_SEPARATOR);
+    String tracingLevel = levelAndRatio[0];
+    String samplerRatio = levelAndRatio.length > 1 ? levelAndRatio[1] : "0";
+    exportExpected = !DISABLED.equals(tracingLevel) && parseDouble(samplerRatio) > 0;
+    InProcessSpanExporter.EXPORTED_SPANS.reset();
+    setProperty(MULE_OPEN_TELEMETRY_EXPORTER_ENABLED, Boolean.toString(!DISABLED.equals(tracingLevel)));
+    setProperty(MULE_OPEN_TELEMETRY_EXPORTER_DEFAULT_TRACING_LEVEL, DISABLED.equals(tracingLevel) ? "overview" : tracingLevel);
+    setProperty(MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER, TRACE_ID_RATIO_SAMPLER);
+    setProperty(MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER_ARG, samplerRatio);
+    super.setup();
+  }
+
+  @Override
+  @TearDown
+  public void teardown() throws MuleException {
+    try {
+      super.teardown();
+    } finally {
+      clearProperty(MULE_OPEN_TELEMETRY_EXPORTER_ENABLED);
+      clearProperty(MULE_OPEN_TELEMETRY_EXPORTER_DEFAULT_TRACING_LEVEL);
+      clearProperty(MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER);
+      clearProperty(MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER_ARG);
+    }
+    if (exportExpected && InProcessSpanExporter.EXPORTED_SPANS.sum() == 0) {
+      throw new IllegalStateException("No span was exported with tracing " + tracing);
+    }
+  }
+
+  @Override
+  protected void addBuilders(List<ConfigurationBuilder> builders) {
+    builders.add(new ConfigurationBuilder() {
+
+      @Override
+      public void addServiceConfigurator(ServiceConfigurator serviceConfigurator) {
+        // Nothing to do
+      }
+
+      @Override
+      public void configure(MuleContext muleContext) {
+        muleContext.getCustomizationService().overrideDefaultServiceClass(MULE_CORE_EXPORTER_FACTORY_KEY,
+                                                                          InProcessSpanExporterFactory.class);
+      }
+    });
+  }
+
+  @Override
+  protected List<Processor> getMessageProcessors() {
+    List<Processor> processors = new ArrayList<>(PROCESSORS);
+    for (int i = 0; i < PROCESSORS; i++) {
+      processors.add(new LocatedProcessor("flow/processors/" + i));
+    }
+    return processors;
+  }
+
+  @Override
+  protected int getStreamIterations() {
+    return 1000;
+  }
+
+  /**
+   * Processor with a location, as the ones in a config, so the tracer creates a span for it.
+   */
+  private static class LocatedProcessor extends AbstractComponent implements Processor {
+
+    private LocatedProcessor(String location) {
+      setAnnotations(singletonMap(LOCATION_KEY, from(location)));
+    }
+
+    @Override
+    public CoreEvent process(CoreEvent event) {
+      return event;
+    }
+  }
+
+  public static class InProcessSpanExporterFactory extends OpenTelemetrySpanExporterFactory {
+
+    @Override
+    protected SpanExporter resolveOpenTelemetrySpanExporter() {
+      return new InProcessSpanExporter();
+    }
+  }
+
+  /**
+   * Sink that counts the exported spans without serializing them or sending them anywhere.
+   */
+  private static class InProcessSpanExporter implements SpanExporter {
+
+    private static final LongAdder EXPORTED_SPANS = new LongAdder();
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      EXPORTED_SPANS.add(spans.size());
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+
+}
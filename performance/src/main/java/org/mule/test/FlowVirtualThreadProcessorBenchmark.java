@@ -0,0 +1,49 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategyFactory;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Same load as {@link FlowIOHighConcurrencyProcessorBenchmark}, with the {@link VirtualThreadProcessingStrategyFactory}, so its
+ * results compare with the {@code ProactorStreamProcessingStrategyFactory} results of that benchmark.
+ * <p>
+ * Needs Java 21 or later, the {@code micro-benchmark} profile excludes it on older JVMs.
+ */
+@OutputTimeUnit(MILLISECONDS)
+@Threads(32)
+public class FlowVirtualThreadProcessorBenchmark extends AbstractProcessingStrategyBenchmark {
+
+  @Param({"iorwSmall", "blocking2"})
+  public String processor;
+
+  @Override
+  protected ProcessingStrategyFactory createProcessingStrategyFactory() {
+    return new VirtualThreadProcessingStrategyFactory();
+  }
+
+  @Override
+  protected List<Processor> getMessageProcessors() {
+    return singletonList("blocking2".equals(processor) ? blocking2Processor : iorwSmall);
+  }
+
+  @Override
+  protected int getStreamIterations() {
+    return 100;
+  }
+
+}
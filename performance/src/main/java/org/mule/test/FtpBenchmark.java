@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.lang.Thread.currentThread;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.forceMkdir;
+import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.test.infrastructure.process.rules.FtpServer;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * FTP list, read and write throughput of the FTP connector against an in-process FTP server started on a dynamic port, with
+ * several concurrent flows, and with the connections of the connector either pooled or opened and closed for each operation.
+ * <p>
+ * The operations run in the flows of {@code benchmark/ftp-benchmark.xml}, deployed with the FTP connector as a
+ * {@link ConnectorApplication}. The connection churn measured when {@link #pooling} is off is what the connector pays on each
+ * operation when its pooling profile is disabled.
+ */
+@Fork(1)
+@Threads(4)
+@State(Benchmark)
+@OutputTimeUnit(SECONDS)
+public class FtpBenchmark {
+
+  private static final String APP_NAME = "ftp-benchmark";
+  private static final String FTP_PORT_SYSTEM_PROPERTY = "ftpPort";
+  private static final String WORKING_DIR_SYSTEM_PROPERTY = "workingDir";
+  private static final String POOLING_DISABLED_SYSTEM_PROPERTY = "ftpPoolingDisabled";
+  private static final File BASE_DIR = new File("target/ftpserver");
+  private static final String WORKING_DIR = "base";
+  private static final int FILES = 100;
+
+  @Param({"true", "false"})
+  public boolean pooling;
+
+  @Param({"1024", "1048576"})
+  public int fileSize;
+
+  private Path appDir;
+  private FtpServer ftpServer;
+  private ConnectorApplication application;
+  private byte[] content;
+
+  @Setup
+  public void setUp() throws Exception {
+    File workingDir = new File(BASE_DIR, WORKING_DIR);
+    deleteQuietly(workingDir);
+    forceMkdir(workingDir);
+    content = new byte[fileSize];
+    ThreadLocalRandom.current().nextBytes(content);
+    for (int i = 0; i < FILES; i++) {
+      writeByteArrayToFile(new File(workingDir, fileName(i)), content);
+    }
+
+    ftpServer = new FtpServer(FTP_PORT_SYSTEM_PROPERTY, BASE_DIR);
+    ftpServer.start();
+    setProperty(FTP_PORT_SYSTEM_PROPERTY, Integer.toString(ftpServer.getPort()));
+    setProperty(WORKING_DIR_SYSTEM_PROPERTY, WORKING_DIR);
+    setProperty(POOLING_DISABLED_SYSTEM_PROPERTY, Boolean.toString(!pooling));
+
+    appDir = createTempDirectory(APP_NAME);
+    Path config = appDir.resolve(APP_NAME + ".xml");
+    try (InputStream configResource = FtpBenchmark.class.getResourceAsStream("/benchmark/" + APP_NAME + ".xml")) {
+      copy(configResource, config);
+    }
+    application = new ConnectorApplication(APP_NAME, config)
+        .dependingOnPlugin("org.mule.connectors", "mule-ftp-connector");
+    application.deploy(appDir);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    try {
+      application.undeploy();
+    } finally {
+      ftpServer.stop();
+      clearProperty(FTP_PORT_SYSTEM_PROPERTY);
+      clearProperty(WORKING_DIR_SYSTEM_PROPERTY);
+      clearProperty(POOLING_DISABLED_SYSTEM_PROPERTY);
+      deleteQuietly(appDir.toFile());
+      deleteQuietly(BASE_DIR);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Throughput)
+  public CoreEvent list() throws Exception {
+    return application.run("list", null, emptyMap());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Throughput)
+  public CoreEvent read() throws Exception {
+    return application.run("read", null, singletonMap("file", fileName(ThreadLocalRandom.current().nextInt(FILES))));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Throughput)
+  public CoreEvent write() throws Exception {
+    return application.run("write", content, singletonMap("file", "write-" + currentThread().getId()));
+  }
+
+  private static String fileName(int index) {
+    return "file-" + index + ".txt";
+  }
+
+}
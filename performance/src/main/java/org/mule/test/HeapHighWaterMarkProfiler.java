@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.management.ManagementFactory.getMemoryPoolMXBeans;
+import static java.lang.management.MemoryType.HEAP;
+import static java.util.Collections.singletonList;
+
+import static org.openjdk.jmh.results.AggregationPolicy.MAX;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.util.Collection;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * JMH profiler that reports the heap high-water mark of each iteration, as the sum of the peak usage of every heap memory pool.
+ * <p>
+ * Enable it with {@code -prof org.mule.test.HeapHighWaterMarkProfiler}.
+ */
+public class HeapHighWaterMarkProfiler implements InternalProfiler {
+
+  private static final double BYTES_PER_MB = 1024 * 1024;
+
+  @Override
+  public String getDescription() {
+    return "Heap high-water mark per iteration";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    for (MemoryPoolMXBean pool : getMemoryPoolMXBeans()) {
+      if (pool.getType() == HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                     IterationResult result) {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : getMemoryPoolMXBeans()) {
+      if (pool.getType() == HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return singletonList(new ScalarResult("heap.peak", peak / BYTES_PER_MB, "MB", MAX));
+  }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+
+/**
+ * Interns the attributes of the spans that only depend on the component that created them.
+ * <p>
+ * The keys are created once, and the location, artifact id and artifact type attributes of each component location are built
+ * once and shared by all the spans of that component. Only the attributes of the event, as the correlation id, have to be set
+ * for each span.
+ */
+public class InternedSpanAttributes {
+
+  public static final AttributeKey<String> LOCATION = stringKey("location");
+  public static final AttributeKey<String> ARTIFACT_ID = stringKey("artifact.id");
+  public static final AttributeKey<String> ARTIFACT_TYPE = stringKey("artifact.type");
+  public static final AttributeKey<String> CORRELATION_ID = stringKey("correlation.id");
+  public static final AttributeKey<String> THREAD_START_NAME = stringKey("thread.start.name");
+
+  private final String artifactId;
+  private final String artifactType;
+  private final Map<String, Attributes> attributesByLocation = new ConcurrentHashMap<>();
+
+  public InternedSpanAttributes(String artifactId, String artifactType) {
+    this.artifactId = artifactId;
+    this.artifactType = artifactType;
+  }
+
+  /**
+   * @param location the location of the component creating the span.
+   * @return the attributes of the component, the same instance for every call with the same location.
+   */
+  public Attributes getComponentAttributes(String location) {
+    Attributes attributes = attributesByLocation.get(location);
+    if (attributes == null) {
+      // Avoids the capturing lambda of computeIfAbsent when the location is already interned
+      attributes = attributesByLocation.computeIfAbsent(location, this::createComponentAttributes);
+    }
+    return attributes;
+  }
+
+  private Attributes createComponentAttributes(String location) {
+    return Attributes.builder()
+        .put(LOCATION, location)
+        .put(ARTIFACT_ID, artifactId)
+        .put(ARTIFACT_TYPE, artifactType)
+        .build();
+  }
+
+}
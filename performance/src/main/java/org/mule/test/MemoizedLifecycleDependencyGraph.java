@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.reverse;
+
+import org.mule.runtime.config.internal.DependencyGraphLifecycleObjectSorter;
+import org.mule.runtime.config.internal.resolvers.DependencyGraphBeanDependencyResolver;
+import org.mule.runtime.core.internal.lifecycle.phases.LifecycleObjectSorter;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle dependency graph of an artifact that is resolved and sorted only once, and then reused by every lifecycle phase.
+ * <p>
+ * The graph is built with a {@link DependencyGraphLifecycleObjectSorter} for all the objects of the artifact, so the given
+ * lifecycle types must match every object any phase may need, for instance ending with {@link Object}. Each phase then gets a
+ * {@link LifecycleObjectSorter} from {@link #forPhase(Class[], boolean)} that keeps, in the already sorted order, the objects
+ * added to it that match the phase types. A subsequence of a topological order is still a topological order, so the
+ * dependencies between the objects of the phase are honored without resolving them again. Stop and dispose use the reverse
+ * order.
+ */
+public class MemoizedLifecycleDependencyGraph {
+
+  private final List<Object> sortedObjects;
+
+  public MemoizedLifecycleDependencyGraph(DependencyGraphBeanDependencyResolver resolver, Class<?>[] lifecycleTypes,
+                                          Map<String, Object> objects) {
+    DependencyGraphLifecycleObjectSorter sorter = new DependencyGraphLifecycleObjectSorter(resolver, lifecycleTypes);
+    objects.forEach(sorter::addObject);
+    sorter.setLifeCycleObjectNameOrder(new ArrayList<>(objects.keySet()));
+    sortedObjects = sorter.getSortedObjects();
+  }
+
+  /**
+   * @param phaseTypes the lifecycle types of the phase, objects not matching any of them are not sorted.
+   * @param reverse    whether the phase goes in the reverse dependency order, as stop and dispose do.
+   * @return a sorter for a lifecycle phase that reuses the already sorted graph.
+   */
+  public LifecycleObjectSorter forPhase(Class<?>[] phaseTypes, boolean reverse) {
+    return new PhaseSorter(phaseTypes, reverse);
+  }
+
+  private class PhaseSorter implements LifecycleObjectSorter {
+
+    private final Class<?>[] phaseTypes;
+    private final boolean reverse;
+    private final Set<Object> phaseObjects = newSetFromMap(new IdentityHashMap<>());
+
+    private PhaseSorter(Class<?>[] phaseTypes, boolean reverse) {
+      this.phaseTypes = phaseTypes;
+      this.reverse = reverse;
+    }
+
+    @Override
+    public void addObject(String name, Object object) {
+      for (Class<?> phaseType : phaseTypes) {
+        if (phaseType.isInstance(object)) {
+          phaseObjects.add(object);
+          return;
+        }
+      }
+    }
+
+    @Override
+    public void setLifeCycleObjectNameOrder(List<String> lifecycleObjectNameOrder) {
+      // The order was already decided when sorting the whole graph
+    }
+
+    @Override
+    public List<Object> getSortedObjects() {
+      List<Object> phaseSortedObjects = new ArrayList<>(phaseObjects.size());
+      for (Object object : sortedObjects) {
+        if (phaseObjects.contains(object)) {
+          phaseSortedObjects.add(object);
+        }
+      }
+      if (reverse) {
+        reverse(phaseSortedObjects);
+      }
+      return phaseSortedObjects;
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.test.tracing.export.ByteBoundedBatchSpanExporter.GZIP;
+import static org.mule.test.tracing.export.ByteBoundedBatchSpanExporter.NONE;
+import static org.mule.test.tracing.export.SpanDataProtobufUtils.toExportTraceServiceRequest;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import static io.opentelemetry.api.trace.SpanKind.INTERNAL;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.test.tracing.export.ByteBoundedBatchSpanExporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Bytes on the wire and CPU of turning a batch of spans into the bodies of the OTLP requests that export it, with the
+ * {@link ByteBoundedBatchSpanExporter} splitting the batch by {@link #maxBatchBytes}, with and without compression.
+ * <p>
+ * Each part of the batch is written with the public protobuf classes, the same messages the exporter takes the sizes from, and
+ * gzipped as the OTLP exporter does when compression is on.
+ * <p>
+ * The average time is per batch, so the CPU per span is the score divided by {@link #spansPerBatch}. The {@code bytesPerSpan}
+ * counter is the size of the request bodies divided by the spans in them, and {@code requestsPerBatch} the number of requests
+ * the batch was split into. Nothing is sent. The spans have the attributes of the processors of a flow, with a few locations
+ * repeating across the batch as in a real application.
+ */
+@Fork(1)
+@State(Benchmark)
+@OutputTimeUnit(MICROSECONDS)
+public class OtlpExportPayloadBenchmark {
+
+  private static final int LOCATIONS = 10;
+  // The exporter is never asked to send, so this endpoint is not connected to
+  private static final String ENDPOINT = "http://localhost:4318/v1/traces";
+
+  @Param({"64", "512"})
+  public int spansPerBatch;
+
+  @Param({NONE, GZIP})
+  public String compression;
+
+  @Param({"16384", "4194304"})
+  public int maxBatchBytes;
+
+  private List<SpanData> batch;
+  private ByteBoundedBatchSpanExporter exporter;
+
+  @Setup
+  public void setUp() {
+    InternedSpanAttributes attributes = new InternedSpanAttributes("app", "APP");
+    PooledSpanData.Pool pool =
+        new PooledSpanData.Pool(InstrumentationScopeInfo.create("org.mule.test"), Resource.getDefault(), 1);
+
+    batch = new ArrayList<>(spansPerBatch);
+    String traceId = TraceId.fromLongs(1, 1);
+    SpanContext parentSpanContext = SpanContext.create(traceId, SpanId.fromLong(1), TraceFlags.getSampled(),
+                                                       TraceState.getDefault());
+    long start = System.currentTimeMillis() * 1_000_000;
+    for (int i = 0; i < spansPerBatch; i++) {
+      String location = "flow/processors/" + (i % LOCATIONS);
+      SpanContext spanContext =
+          SpanContext.create(traceId, SpanId.fromLong(i + 2), TraceFlags.getSampled(), TraceState.getDefault());
+      batch.add(pool.acquire().set("mule:set-payload", INTERNAL, spanContext, parentSpanContext,
+                                   attributes.getComponentAttributes(location), "correlation-" + i, "cpuLight.01",
+                                   StatusData.unset(), start + i * 1000L, start + i * 1000L + 500L));
+    }
+    exporter = new ByteBoundedBatchSpanExporter(ENDPOINT, compression, maxBatchBytes);
+  }
+
+  @TearDown
+  public void tearDown() {
+    exporter.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public long serializeBatch(WireBytes wireBytes) throws IOException {
+    List<List<SpanData>> requests = exporter.split(batch);
+    long bodyBytes = 0;
+    for (List<SpanData> request : requests) {
+      bodyBytes += encode(toExportTraceServiceRequest(request)).length;
+    }
+    wireBytes.bytesPerSpan = (double) bodyBytes / spansPerBatch;
+    wireBytes.requestsPerBatch = requests.size();
+    return bodyBytes;
+  }
+
+  private byte[] encode(ExportTraceServiceRequest request) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(request.getSerializedSize());
+    try (OutputStream body = GZIP.equals(compression) ? new GZIPOutputStream(bytes) : bytes) {
+      request.writeTo(body);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Size of the request bodies per span, and number of requests, of the last serialized batch.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class WireBytes {
+
+    public double bytesPerSpan;
+    public int requestsPerBatch;
+  }
+
+}
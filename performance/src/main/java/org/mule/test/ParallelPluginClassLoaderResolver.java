@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.ofNullable;
+
+import org.mule.runtime.module.artifact.activation.internal.classloader.DefaultArtifactClassLoaderResolver;
+import org.mule.runtime.module.artifact.api.classloader.MuleArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.classloader.MuleDeployableArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.descriptor.ArtifactPluginDescriptor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Plugin classloader resolver for {@link DefaultArtifactClassLoaderResolver#createApplicationClassLoader} that builds the
+ * classloaders of the plugins of the application in parallel, instead of one after the other.
+ * <p>
+ * The plugins are grouped by dependency level: a plugin that depends on no other plugin of the application is on the first
+ * level, and any other one is on the level after the deepest of its dependencies. The first time a plugin classloader is
+ * requested for an owner, the levels are built one after the other, and the plugins of each level in parallel on the given
+ * {@link ForkJoinPool}, so the classloader of a plugin is only built once those of the plugins it depends on are. Plugins in a
+ * dependency cycle go to the last level. Every classloader is then handed to the runtime in the order it asks for them, so the
+ * resulting application classloader is the same as when built sequentially.
+ */
+public class ParallelPluginClassLoaderResolver {
+
+  private final DefaultArtifactClassLoaderResolver artifactClassLoaderResolver;
+  private final ForkJoinPool pool;
+  private final Map<String, ArtifactPluginDescriptor> pluginsByArtifactId = new LinkedHashMap<>();
+
+  private MuleDeployableArtifactClassLoader owner;
+  private Map<String, MuleArtifactClassLoader> classLoadersByArtifactId;
+
+  public ParallelPluginClassLoaderResolver(DefaultArtifactClassLoaderResolver artifactClassLoaderResolver, ForkJoinPool pool,
+                                           List<ArtifactPluginDescriptor> plugins) {
+    this.artifactClassLoaderResolver = artifactClassLoaderResolver;
+    this.pool = pool;
+    plugins.forEach(plugin -> pluginsByArtifactId.put(artifactId(plugin), plugin));
+  }
+
+  public synchronized Optional<Supplier<MuleArtifactClassLoader>> resolve(MuleDeployableArtifactClassLoader ownerClassLoader,
+                                                                          ArtifactPluginDescriptor pluginDescriptor) {
+    if (owner != ownerClassLoader) {
+      owner = ownerClassLoader;
+      classLoadersByArtifactId = createPluginClassLoaders(ownerClassLoader);
+    }
+    MuleArtifactClassLoader classLoader = classLoadersByArtifactId.get(artifactId(pluginDescriptor));
+    return classLoader == null ? empty() : Optional.of(() -> classLoader);
+  }
+
+  private Map<String, MuleArtifactClassLoader> createPluginClassLoaders(MuleDeployableArtifactClassLoader ownerClassLoader) {
+    Map<String, MuleArtifactClassLoader> classLoaders = new ConcurrentHashMap<>();
+    for (List<ArtifactPluginDescriptor> level : getDependencyLevels()) {
+      pool.submit(() -> level.parallelStream().forEach(plugin -> classLoaders
+          .put(artifactId(plugin), artifactClassLoaderResolver
+              .createMulePluginClassLoader(ownerClassLoader, plugin,
+                                           (apds, d) -> ofNullable(pluginsByArtifactId.get(d.getArtifactId()))))))
+          .join();
+    }
+    return classLoaders;
+  }
+
+  /**
+   * @return the plugins grouped by dependency level, in the order of the levels.
+   */
+  List<List<ArtifactPluginDescriptor>> getDependencyLevels() {
+    List<List<ArtifactPluginDescriptor>> levels = new ArrayList<>();
+    Map<String, ArtifactPluginDescriptor> pending = new LinkedHashMap<>(pluginsByArtifactId);
+    while (!pending.isEmpty()) {
+      List<ArtifactPluginDescriptor> level = new ArrayList<>();
+      for (ArtifactPluginDescriptor plugin : pending.values()) {
+        if (plugin.getClassLoaderConfiguration().getDependencies().stream()
+            .map(dependency -> dependency.getDescriptor().getArtifactId())
+            .noneMatch(pending::containsKey)) {
+          level.add(plugin);
+        }
+      }
+      if (level.isEmpty()) {
+        // Only plugins in dependency cycles are left
+        level.addAll(pending.values());
+      }
+      level.forEach(plugin -> pending.remove(artifactId(plugin)));
+      levels.add(level);
+    }
+    return levels;
+  }
+
+  private static String artifactId(ArtifactPluginDescriptor plugin) {
+    return plugin.getBundleDescriptor().getArtifactId();
+  }
+
+}
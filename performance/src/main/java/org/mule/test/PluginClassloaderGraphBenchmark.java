@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.runtime.module.artifact.api.descriptor.BundleScope.COMPILE;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.runtime.module.artifact.api.classloader.MuleDeployableArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.descriptor.ApplicationDescriptor;
+import org.mule.runtime.module.artifact.api.descriptor.ArtifactPluginDescriptor;
+import org.mule.runtime.module.artifact.api.descriptor.BundleDependency;
+import org.mule.runtime.module.artifact.api.descriptor.BundleDescriptor;
+import org.mule.runtime.module.artifact.api.descriptor.ClassLoaderConfiguration.ClassLoaderConfigurationBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Application classloader creation with many plugins, building the plugin classloaders one after the other against building
+ * them with a {@link ParallelPluginClassLoaderResolver}.
+ * <p>
+ * The plugins are split in chains of {@link #dependencyDepth} plugins, each one depending on the previous one of its chain, so
+ * a depth of 1 means no plugin depends on another.
+ */
+@Fork(1)
+@OutputTimeUnit(MILLISECONDS)
+@State(Benchmark)
+public class PluginClassloaderGraphBenchmark extends AbstractArtifactActivationBenchmark {
+
+  private static final int PACKAGES_PER_PLUGIN = 20;
+
+  private final String customDomainName = "custom-domain";
+  private final String applicationName = "app";
+
+  @Param({"10", "30", "60"})
+  public int plugins;
+
+  @Param({"1", "3", "6"})
+  public int dependencyDepth;
+
+  private List<ArtifactPluginDescriptor> pluginDescriptors;
+  private ApplicationDescriptor applicationDescriptor;
+  private MuleDeployableArtifactClassLoader domainClassLoader;
+  private ForkJoinPool pool;
+
+  @Override
+  @Setup
+  public void setup() throws IOException {
+    super.setup();
+    customDomainDescriptor = getTestDomainDescriptor(customDomainName);
+    customDomainDescriptor.setRootFolder(createDomainDir(MULE_DOMAIN_FOLDER, customDomainName));
+    domainClassLoader = getTestDomainClassLoader(emptyList());
+
+    pluginDescriptors = new ArrayList<>(plugins);
+    BundleDescriptor previousBundleDescriptor = null;
+    for (int i = 0; i < plugins; i++) {
+      String pluginId = "plugin" + i;
+      BundleDescriptor bundleDescriptor = new BundleDescriptor.Builder().setGroupId(GROUP_ID).setArtifactId(pluginId)
+          .setVersion("1.0").setClassifier("mule-plugin").build();
+
+      Set<String> exportedPackages = new LinkedHashSet<>();
+      for (int p = 0; p < PACKAGES_PER_PLUGIN; p++) {
+        exportedPackages.add("org.mule.test." + pluginId + ".package" + p);
+      }
+      ClassLoaderConfigurationBuilder classLoaderConfiguration =
+          new ClassLoaderConfigurationBuilder().exportingPackages(exportedPackages);
+      if (i % dependencyDepth != 0) {
+        classLoaderConfiguration.dependingOn(singleton(new BundleDependency.Builder().setScope(COMPILE)
+            .setDescriptor(previousBundleDescriptor).setBundleUri(new File("test").toURI()).build()));
+      } else {
+        classLoaderConfiguration.dependingOn(emptySet());
+      }
+
+      ArtifactPluginDescriptor pluginDescriptor = new ArtifactPluginDescriptor(pluginId);
+      pluginDescriptor.setBundleDescriptor(bundleDescriptor);
+      pluginDescriptor.setClassLoaderConfiguration(classLoaderConfiguration.build());
+      pluginDescriptors.add(pluginDescriptor);
+      previousBundleDescriptor = bundleDescriptor;
+    }
+
+    applicationDescriptor = new ApplicationDescriptor(applicationName);
+    applicationDescriptor.setArtifactLocation(new File(muleHomeFolder, applicationName));
+    applicationDescriptor.setPlugins(new LinkedHashSet<>(pluginDescriptors));
+
+    pool = new ForkJoinPool();
+  }
+
+  @Override
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+    super.tearDown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public MuleDeployableArtifactClassLoader createApplicationClassLoaderWithPlugins() {
+    return artifactClassLoaderResolver.createApplicationClassLoader(applicationDescriptor, () -> domainClassLoader);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public MuleDeployableArtifactClassLoader createApplicationClassLoaderWithPluginsInParallel() {
+    ParallelPluginClassLoaderResolver pluginClassLoaderResolver =
+        new ParallelPluginClassLoaderResolver(artifactClassLoaderResolver, pool, pluginDescriptors);
+    return artifactClassLoaderResolver.createApplicationClassLoader(applicationDescriptor, () -> domainClassLoader,
+                                                                    pluginClassLoaderResolver::resolve);
+  }
+
+  List<ArtifactPluginDescriptor> getPluginDescriptors() {
+    return pluginDescriptors;
+  }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.io.OutputStream.nullOutputStream;
+import static java.lang.String.join;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toCollection;
+
+import org.mule.runtime.api.deployment.meta.MulePluginModel;
+import org.mule.runtime.api.deployment.persistence.MulePluginModelJsonSerializer;
+import org.mule.runtime.module.artifact.api.descriptor.BundleDependency;
+import org.mule.runtime.module.artifact.api.descriptor.ClassLoaderConfiguration;
+import org.mule.runtime.module.artifact.api.descriptor.ClassLoaderConfiguration.ClassLoaderConfigurationBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Index of the packages and resources of plugin jars, so the {@link ClassLoaderConfiguration} of a plugin is built from a map
+ * lookup instead of scanning its jar every time a classloader is created for it.
+ * <p>
+ * As the plugin classloader configuration loader does, the packages and resources found in the jar are its local ones, and
+ * the exported ones are those the plugin declares in its {@code mule-artifact.json}, so the lookup policies built from the
+ * configurations are the same as those of the runtime.
+ * <p>
+ * Entries are keyed by the SHA-256 of the jar content and persisted as properties files in the index folder, so the same
+ * plugin shared by many applications, or deployed again after a restart, is scanned only once. The content of a jar is hashed
+ * on every lookup, so a jar replaced in place, even with the same size and modification time, is never given the entry of its
+ * previous content.
+ */
+public class PluginPackageIndex {
+
+  private static final String CLASS_EXTENSION = ".class";
+  private static final String META_INF = "META-INF/";
+  private static final String MULE_ARTIFACT_JSON = "META-INF/mule-artifact/mule-artifact.json";
+  private static final String EXPORTED_PACKAGES = "exportedPackages";
+  private static final String EXPORTED_RESOURCES = "exportedResources";
+  private static final String LOCAL_PACKAGES_PROPERTY = "localPackages";
+  private static final String LOCAL_RESOURCES_PROPERTY = "localResources";
+  private static final String EXPORTED_PACKAGES_PROPERTY = "exportedPackages";
+  private static final String EXPORTED_RESOURCES_PROPERTY = "exportedResources";
+  private static final String SEPARATOR = ",";
+
+  private final Path indexFolder;
+  private final Map<String, Entry> entriesByHash = new ConcurrentHashMap<>();
+
+  public PluginPackageIndex(Path indexFolder) {
+    this.indexFolder = indexFolder;
+  }
+
+  /**
+   * @return the configuration of a classloader for the given plugin jar, exporting the packages and resources it declares.
+   */
+  public ClassLoaderConfiguration getClassLoaderConfiguration(File pluginJar) {
+    return getClassLoaderConfiguration(pluginJar, emptySet());
+  }
+
+  /**
+   * @return the configuration of a classloader for the given plugin jar, exporting the packages and resources it declares and
+   *         depending on the given plugins.
+   */
+  public ClassLoaderConfiguration getClassLoaderConfiguration(File pluginJar, Set<BundleDependency> dependencies) {
+    return entriesByHash.computeIfAbsent(hash(pluginJar), hash -> loadOrScan(hash, pluginJar))
+        .toClassLoaderConfiguration(pluginJar, dependencies);
+  }
+
+  /**
+   * Builds the configuration of a classloader for the given plugin jar by scanning it, as it is done without an index.
+   */
+  public static ClassLoaderConfiguration scan(File pluginJar, Set<BundleDependency> dependencies) {
+    return scanEntry(pluginJar).toClassLoaderConfiguration(pluginJar, dependencies);
+  }
+
+  private static String hash(File pluginJar) {
+    try (InputStream content = newInputStream(pluginJar.toPath());
+        DigestInputStream digested = new DigestInputStream(content, sha256Digest())) {
+      digested.transferTo(nullOutputStream());
+      return HexFormat.of().formatHex(digested.getMessageDigest().digest());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static MessageDigest sha256Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Entry loadOrScan(String hash, File pluginJar) {
+    Path indexFile = indexFolder.resolve(hash + ".properties");
+    try {
+      if (exists(indexFile)) {
+        Properties properties = new Properties();
+        try (InputStream in = newInputStream(indexFile)) {
+          properties.load(in);
+        }
+        return new Entry(split(properties.getProperty(LOCAL_PACKAGES_PROPERTY)),
+                         split(properties.getProperty(LOCAL_RESOURCES_PROPERTY)),
+                         split(properties.getProperty(EXPORTED_PACKAGES_PROPERTY)),
+                         split(properties.getProperty(EXPORTED_RESOURCES_PROPERTY)));
+      }
+
+      Entry entry = scanEntry(pluginJar);
+      Properties properties = new Properties();
+      properties.setProperty(LOCAL_PACKAGES_PROPERTY, join(SEPARATOR, entry.localPackages));
+      properties.setProperty(LOCAL_RESOURCES_PROPERTY, join(SEPARATOR, entry.localResources));
+      properties.setProperty(EXPORTED_PACKAGES_PROPERTY, join(SEPARATOR, entry.exportedPackages));
+      properties.setProperty(EXPORTED_RESOURCES_PROPERTY, join(SEPARATOR, entry.exportedResources));
+      createDirectories(indexFolder);
+      try (OutputStream out = newOutputStream(indexFile)) {
+        properties.store(out, pluginJar.getName());
+      }
+      return entry;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static Entry scanEntry(File pluginJar) {
+    Set<String> packages = new TreeSet<>();
+    Set<String> resources = new TreeSet<>();
+    Map<String, Object> declaredAttributes = emptyMap();
+    try (JarFile jarFile = new JarFile(pluginJar)) {
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        JarEntry entry = entries.nextElement();
+        String name = entry.getName();
+        if (MULE_ARTIFACT_JSON.equals(name)) {
+          try (InputStream descriptor = jarFile.getInputStream(entry)) {
+            declaredAttributes = getClassLoaderModelAttributes(new String(descriptor.readAllBytes(), UTF_8));
+          }
+        }
+        if (entry.isDirectory() || name.startsWith(META_INF)) {
+          continue;
+        }
+        if (name.endsWith(CLASS_EXTENSION)) {
+          int lastSlash = name.lastIndexOf('/');
+          if (lastSlash > 0) {
+            packages.add(name.substring(0, lastSlash).replace('/', '.'));
+          }
+        } else {
+          resources.add(name);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new Entry(packages, resources, toSet(declaredAttributes.get(EXPORTED_PACKAGES)),
+                     toSet(declaredAttributes.get(EXPORTED_RESOURCES)));
+  }
+
+  private static Map<String, Object> getClassLoaderModelAttributes(String muleArtifactJson) {
+    MulePluginModel pluginModel = new MulePluginModelJsonSerializer().deserialize(muleArtifactJson);
+    if (pluginModel.getClassLoaderModelLoaderDescriptor() == null) {
+      return emptyMap();
+    }
+    return pluginModel.getClassLoaderModelLoaderDescriptor().getAttributes();
+  }
+
+  private static Set<String> toSet(Object declared) {
+    Set<String> values = new TreeSet<>();
+    if (declared instanceof Collection) {
+      ((Collection<?>) declared).forEach(value -> values.add(value.toString()));
+    }
+    return values;
+  }
+
+  private static Set<String> split(String value) {
+    if (value == null || value.isEmpty()) {
+      return emptySet();
+    }
+    return stream(value.split(SEPARATOR)).collect(toCollection(TreeSet::new));
+  }
+
+  private static final class Entry {
+
+    private final Set<String> localPackages;
+    private final Set<String> localResources;
+    private final Set<String> exportedPackages;
+    private final Set<String> exportedResources;
+
+    private Entry(Set<String> localPackages, Set<String> localResources, Set<String> exportedPackages,
+                  Set<String> exportedResources) {
+      this.localPackages = localPackages;
+      this.localResources = localResources;
+      this.exportedPackages = exportedPackages;
+      this.exportedResources = exportedResources;
+    }
+
+    private ClassLoaderConfiguration toClassLoaderConfiguration(File pluginJar, Set<BundleDependency> dependencies) {
+      try {
+        return new ClassLoaderConfigurationBuilder()
+            .exportingPackages(exportedPackages)
+            .exportingResources(exportedResources)
+            .withLocalPackages(localPackages)
+            .withLocalResources(localResources)
+            .dependingOn(dependencies)
+            .containing(pluginJar.toURI().toURL())
+            .build();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+}
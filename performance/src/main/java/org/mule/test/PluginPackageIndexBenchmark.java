@@ -0,0 +1,229 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.runtime.module.artifact.api.classloader.ParentFirstLookupStrategy.PARENT_FIRST;
+import static org.mule.runtime.module.artifact.api.descriptor.BundleScope.COMPILE;
+
+import static java.lang.Math.max;
+import static java.lang.String.join;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.runtime.module.artifact.api.classloader.ClassLoaderLookupPolicy;
+import org.mule.runtime.module.artifact.api.classloader.LookupStrategy;
+import org.mule.runtime.module.artifact.api.classloader.MuleArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.classloader.MuleDeployableArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.descriptor.ArtifactPluginDescriptor;
+import org.mule.runtime.module.artifact.api.descriptor.BundleDependency;
+import org.mule.runtime.module.artifact.api.descriptor.BundleDescriptor;
+import org.mule.runtime.module.artifact.api.descriptor.ClassLoaderConfiguration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Plugin and domain classloader creation for many plugins, comparing scanning the plugin jars for their exported packages and
+ * resources each time against looking them up in a {@link PluginPackageIndex}.
+ * <p>
+ * Each plugin depends on the {@link #DEPENDENCIES_PER_PLUGIN} plugins before it, so creating its classloader builds the
+ * lookup policy for the packages they export, as the resolver does for a real application. {@code buildPluginLookupPolicies}
+ * measures only that part: extending the lookup policy of the domain with the packages exported by the dependencies of each
+ * plugin.
+ * <p>
+ * Each plugin declares only some of its packages and resources as exported in its {@code mule-artifact.json}, as real plugins
+ * do, so the lookup policies only have the packages the runtime would expose.
+ */
+@Fork(1)
+@OutputTimeUnit(MILLISECONDS)
+@State(Benchmark)
+public class PluginPackageIndexBenchmark extends AbstractArtifactActivationBenchmark {
+
+  private static final int PACKAGES_PER_PLUGIN = 40;
+  private static final int CLASSES_PER_PACKAGE = 10;
+  private static final int RESOURCES_PER_PLUGIN = 20;
+  private static final int DEPENDENCIES_PER_PLUGIN = 5;
+  // Plugins usually export their API packages only
+  private static final int EXPORTED_PACKAGES_PER_PLUGIN = PACKAGES_PER_PLUGIN / 4;
+  private static final int EXPORTED_RESOURCES_PER_PLUGIN = RESOURCES_PER_PLUGIN / 4;
+
+  private final String customDomainName = "custom-domain";
+
+  @Param({"10", "50", "100"})
+  public int plugins;
+
+  private List<File> pluginJars;
+  private List<ArtifactPluginDescriptor> pluginDescriptors;
+  private List<Set<BundleDependency>> pluginDependencies;
+  private Map<String, ArtifactPluginDescriptor> pluginDescriptorsById;
+  private File indexFolder;
+  private PluginPackageIndex packageIndex;
+  private MuleDeployableArtifactClassLoader domainClassLoader;
+
+  @Override
+  @Setup
+  public void setup() throws IOException {
+    super.setup();
+    customDomainDescriptor = getTestDomainDescriptor(customDomainName);
+    customDomainDescriptor.setRootFolder(createDomainDir(MULE_DOMAIN_FOLDER, customDomainName));
+    domainClassLoader = getTestDomainClassLoader(emptyList());
+
+    File pluginsFolder = artifactLocation.newFolder("plugins");
+    pluginJars = new ArrayList<>(plugins);
+    pluginDescriptors = new ArrayList<>(plugins);
+    pluginDependencies = new ArrayList<>(plugins);
+    pluginDescriptorsById = new HashMap<>();
+    for (int i = 0; i < plugins; i++) {
+      String pluginId = "plugin" + i;
+      pluginJars.add(createPluginJar(new File(pluginsFolder, pluginId + ".jar"), pluginId));
+
+      ArtifactPluginDescriptor pluginDescriptor = new ArtifactPluginDescriptor(pluginId);
+      pluginDescriptor.setBundleDescriptor(new BundleDescriptor.Builder().setGroupId(GROUP_ID).setArtifactId(pluginId)
+          .setVersion("1.0").setClassifier("mule-plugin").build());
+      pluginDescriptors.add(pluginDescriptor);
+      pluginDescriptorsById.put(pluginId, pluginDescriptor);
+
+      Set<BundleDependency> dependencies = new HashSet<>();
+      for (int d = max(0, i - DEPENDENCIES_PER_PLUGIN); d < i; d++) {
+        dependencies.add(new BundleDependency.Builder().setScope(COMPILE)
+            .setDescriptor(pluginDescriptors.get(d).getBundleDescriptor())
+            .setBundleUri(pluginJars.get(d).toURI()).build());
+      }
+      pluginDependencies.add(dependencies);
+    }
+
+    indexFolder = artifactLocation.newFolder("plugin-index");
+    packageIndex = new PluginPackageIndex(indexFolder.toPath());
+    // the plugins were already seen by a previous deployment
+    configurePlugins(packageIndex::getClassLoaderConfiguration);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<MuleArtifactClassLoader> createPluginClassLoadersScanningJars() {
+    configurePlugins(PluginPackageIndex::scan);
+    return createPluginClassLoaders();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<MuleArtifactClassLoader> createPluginClassLoadersWithPackageIndex() {
+    configurePlugins(packageIndex::getClassLoaderConfiguration);
+    return createPluginClassLoaders();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<MuleArtifactClassLoader> createPluginClassLoadersWithPersistedPackageIndex() {
+    // as after a restart, the index is read from disk
+    configurePlugins(new PluginPackageIndex(indexFolder.toPath())::getClassLoaderConfiguration);
+    return createPluginClassLoaders();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<ClassLoaderLookupPolicy> buildPluginLookupPolicies() {
+    ClassLoaderLookupPolicy domainLookupPolicy = domainClassLoader.getClassLoaderLookupPolicy();
+    List<ClassLoaderLookupPolicy> lookupPolicies = new ArrayList<>(plugins);
+    for (ArtifactPluginDescriptor pluginDescriptor : pluginDescriptors) {
+      Map<String, LookupStrategy> dependenciesLookupStrategies = new HashMap<>();
+      for (BundleDependency dependency : pluginDescriptor.getClassLoaderConfiguration().getDependencies()) {
+        pluginDescriptorsById.get(dependency.getDescriptor().getArtifactId()).getClassLoaderConfiguration()
+            .getExportedPackages().forEach(exportedPackage -> dependenciesLookupStrategies.put(exportedPackage, PARENT_FIRST));
+      }
+      lookupPolicies.add(domainLookupPolicy.extend(dependenciesLookupStrategies));
+    }
+    return lookupPolicies;
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public MuleDeployableArtifactClassLoader createDomainClassLoaderWithPluginsScanningJars() {
+    configurePlugins(PluginPackageIndex::scan);
+    return getTestDomainClassLoader(pluginDescriptors);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public MuleDeployableArtifactClassLoader createDomainClassLoaderWithPluginsWithPackageIndex() {
+    configurePlugins(packageIndex::getClassLoaderConfiguration);
+    return getTestDomainClassLoader(pluginDescriptors);
+  }
+
+  private void configurePlugins(BiFunction<File, Set<BundleDependency>, ClassLoaderConfiguration> configuration) {
+    for (int i = 0; i < plugins; i++) {
+      pluginDescriptors.get(i).setClassLoaderConfiguration(configuration.apply(pluginJars.get(i), pluginDependencies.get(i)));
+    }
+  }
+
+  private List<MuleArtifactClassLoader> createPluginClassLoaders() {
+    List<MuleArtifactClassLoader> classLoaders = new ArrayList<>(plugins);
+    for (ArtifactPluginDescriptor pluginDescriptor : pluginDescriptors) {
+      classLoaders.add(artifactClassLoaderResolver
+          .createMulePluginClassLoader(domainClassLoader, pluginDescriptor,
+                                       (apds, d) -> ofNullable(pluginDescriptorsById.get(d.getArtifactId()))));
+    }
+    return classLoaders;
+  }
+
+  private static File createPluginJar(File jar, String pluginId) throws IOException {
+    List<String> exportedPackages = new ArrayList<>();
+    List<String> exportedResources = new ArrayList<>();
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+      for (int p = 0; p < PACKAGES_PER_PLUGIN; p++) {
+        String packageFolder = "org/mule/test/" + pluginId + "/package" + p + "/";
+        if (p < EXPORTED_PACKAGES_PER_PLUGIN) {
+          exportedPackages.add("\"" + packageFolder.substring(0, packageFolder.length() - 1).replace('/', '.') + "\"");
+        }
+        for (int c = 0; c < CLASSES_PER_PACKAGE; c++) {
+          out.putNextEntry(new JarEntry(packageFolder + "Class" + c + ".class"));
+          out.write(new byte[256]);
+          out.closeEntry();
+        }
+      }
+      for (int r = 0; r < RESOURCES_PER_PLUGIN; r++) {
+        out.putNextEntry(new JarEntry(pluginId + "/resource" + r + ".xml"));
+        out.write(("<resource id=\"" + r + "\"/>").getBytes());
+        out.closeEntry();
+        if (r < EXPORTED_RESOURCES_PER_PLUGIN) {
+          exportedResources.add("\"" + pluginId + "/resource" + r + ".xml\"");
+        }
+      }
+      out.putNextEntry(new JarEntry("META-INF/mule-artifact/mule-artifact.json"));
+      out.write(("{\"name\": \"" + pluginId + "\", \"minMuleVersion\": \"4.0.0\", "
+          + "\"classLoaderModelLoaderDescriptor\": {\"id\": \"mule\", \"attributes\": {"
+          + "\"exportedPackages\": [" + join(", ", exportedPackages) + "], "
+          + "\"exportedResources\": [" + join(", ", exportedResources) + "]}}}").getBytes(UTF_8));
+      out.closeEntry();
+    }
+    return jar;
+  }
+
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.test.InternedSpanAttributes.CORRELATION_ID;
+import static org.mule.test.InternedSpanAttributes.THREAD_START_NAME;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.Thread.currentThread;
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.BiConsumer;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+/**
+ * Mutable {@link SpanData} that is taken from a {@link Pool} when a span ends and given back once its export completed, so the
+ * span data holders are reused across exports.
+ * <p>
+ * Its attributes are a view over the {@link InternedSpanAttributes interned attributes} of the component plus the correlation id
+ * and the thread name of the event, so no attribute is copied for each span either.
+ */
+public class PooledSpanData implements SpanData {
+
+  private final InstrumentationScopeInfo instrumentationScopeInfo;
+  private final Resource resource;
+  private final SpanAttributes attributes = new SpanAttributes();
+
+  private String name;
+  private SpanKind kind;
+  private SpanContext spanContext;
+  private SpanContext parentSpanContext;
+  private StatusData status;
+  private long startEpochNanos;
+  private long endEpochNanos;
+
+  private PooledSpanData(InstrumentationScopeInfo instrumentationScopeInfo, Resource resource) {
+    this.instrumentationScopeInfo = instrumentationScopeInfo;
+    this.resource = resource;
+  }
+
+  /**
+   * Sets the data of the span. The given attributes and contexts are referenced, not copied.
+   *
+   * @return this span data.
+   */
+  public PooledSpanData set(String name, SpanKind kind, SpanContext spanContext, SpanContext parentSpanContext,
+                            Attributes componentAttributes, String correlationId, String threadName, StatusData status,
+                            long startEpochNanos, long endEpochNanos) {
+    this.name = name;
+    this.kind = kind;
+    this.spanContext = spanContext;
+    this.parentSpanContext = parentSpanContext;
+    this.attributes.componentAttributes = componentAttributes;
+    this.attributes.correlationId = correlationId;
+    this.attributes.threadName = threadName;
+    this.status = status;
+    this.startEpochNanos = startEpochNanos;
+    this.endEpochNanos = endEpochNanos;
+    return this;
+  }
+
+  private void clear() {
+    // Empty rather than null attributes, so a span data read after its release has no attributes instead of failing
+    set(null, null, null, null, Attributes.empty(), null, null, null, 0, 0);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public SpanKind getKind() {
+    return kind;
+  }
+
+  @Override
+  public SpanContext getSpanContext() {
+    return spanContext;
+  }
+
+  @Override
+  public SpanContext getParentSpanContext() {
+    return parentSpanContext;
+  }
+
+  @Override
+  public StatusData getStatus() {
+    return status;
+  }
+
+  @Override
+  public long getStartEpochNanos() {
+    return startEpochNanos;
+  }
+
+  @Override
+  public Attributes getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public List<EventData> getEvents() {
+    return emptyList();
+  }
+
+  @Override
+  public List<LinkData> getLinks() {
+    return emptyList();
+  }
+
+  @Override
+  public long getEndEpochNanos() {
+    return endEpochNanos;
+  }
+
+  @Override
+  public boolean hasEnded() {
+    return true;
+  }
+
+  @Override
+  public int getTotalRecordedEvents() {
+    return 0;
+  }
+
+  @Override
+  public int getTotalRecordedLinks() {
+    return 0;
+  }
+
+  @Override
+  public int getTotalAttributeCount() {
+    return attributes.size();
+  }
+
+  @Override
+  @Deprecated
+  public InstrumentationLibraryInfo getInstrumentationLibraryInfo() {
+    return InstrumentationLibraryInfo.create(instrumentationScopeInfo.getName(), instrumentationScopeInfo.getVersion());
+  }
+
+  @Override
+  public InstrumentationScopeInfo getInstrumentationScopeInfo() {
+    return instrumentationScopeInfo;
+  }
+
+  @Override
+  public Resource getResource() {
+    return resource;
+  }
+
+  /**
+   * Bounded pool of {@link PooledSpanData}. When it is empty a new instance is created, and when it is full the released
+   * instance is left to the garbage collector, so it never blocks.
+   * <p>
+   * The instances are kept in stripes, about one per processor, and each thread starts acquiring from and releasing to the stripe
+   * of its id, so threads ending spans concurrently do not all contend on the lock of a single queue. When the stripe of the
+   * thread is empty, or full on release, the other stripes are tried in turn, as spans are usually released by the exporter
+   * thread rather than by the thread that acquired them.
+   */
+  public static class Pool {
+
+    private final InstrumentationScopeInfo instrumentationScopeInfo;
+    private final Resource resource;
+    private final ArrayBlockingQueue<PooledSpanData>[] stripes;
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    public Pool(InstrumentationScopeInfo instrumentationScopeInfo, Resource resource, int capacity) {
+      this.instrumentationScopeInfo = instrumentationScopeInfo;
+      this.resource = resource;
+      int processors = getRuntime().availableProcessors();
+      // A power of two, so the stripe is taken with a mask, and no more stripes than instances
+      int stripeCount = min(highestOneBit(max(processors, 1) * 2 - 1), highestOneBit(max(capacity, 1)));
+      this.stripes = new ArrayBlockingQueue[stripeCount];
+      for (int i = 0; i < stripeCount; i++) {
+        stripes[i] = new ArrayBlockingQueue<>(max(capacity / stripeCount, 1));
+      }
+      this.stripeMask = stripeCount - 1;
+    }
+
+    public PooledSpanData acquire() {
+      int stripe = currentStripe();
+      for (int i = 0; i < stripes.length; i++) {
+        PooledSpanData spanData = stripes[(stripe + i) & stripeMask].poll();
+        if (spanData != null) {
+          return spanData;
+        }
+      }
+      return new PooledSpanData(instrumentationScopeInfo, resource);
+    }
+
+    /**
+     * Gives back a span data. Must only be called once the export of the span completed, since the exporter may still read it
+     * until then.
+     */
+    public void release(PooledSpanData spanData) {
+      spanData.clear();
+      int stripe = currentStripe();
+      for (int i = 0; i < stripes.length; i++) {
+        if (stripes[(stripe + i) & stripeMask].offer(spanData)) {
+          return;
+        }
+      }
+    }
+
+    private int currentStripe() {
+      return (int) currentThread().getId() & stripeMask;
+    }
+  }
+
+  private static final class SpanAttributes implements Attributes {
+
+    private Attributes componentAttributes = Attributes.empty();
+    private String correlationId;
+    private String threadName;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(AttributeKey<T> key) {
+      if (CORRELATION_ID.equals(key)) {
+        return (T) correlationId;
+      }
+      if (THREAD_START_NAME.equals(key)) {
+        return (T) threadName;
+      }
+      return componentAttributes.get(key);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> consumer) {
+      componentAttributes.forEach(consumer);
+      if (correlationId != null) {
+        consumer.accept(CORRELATION_ID, correlationId);
+      }
+      if (threadName != null) {
+        consumer.accept(THREAD_START_NAME, threadName);
+      }
+    }
+
+    @Override
+    public int size() {
+      return componentAttributes.size() + (correlationId != null ? 1 : 0) + (threadName != null ? 1 : 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return size() == 0;
+    }
+
+    @Override
+    public Map<AttributeKey<?>, Object> asMap() {
+      return toBuilder().build().asMap();
+    }
+
+    @Override
+    public AttributesBuilder toBuilder() {
+      AttributesBuilder builder = componentAttributes.toBuilder();
+      if (correlationId != null) {
+        builder.put(CORRELATION_ID, correlationId);
+      }
+      if (threadName != null) {
+        builder.put(THREAD_START_NAME, threadName);
+      }
+      return builder;
+    }
+  }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.lang.Thread.currentThread;
+import static java.lang.Thread.sleep;
+import static java.net.InetAddress.getLoopbackAddress;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.write;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.runtime.core.api.event.CoreEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Scatter-gather fan-out benchmark, migrated from the {@code ScatterGatherRouterPerformanceTestCase} ContiPerf test.
+ * <p>
+ * The config is generated for the requested number of routes and deployed with the HTTP connector as a
+ * {@link ConnectorApplication}. In {@code parallelProcessing} every route waits for {@link #routeLatency}. In the HTTP flows
+ * every route is an {@code http:request} that posts the event payload to a local server, which echoes it after
+ * {@link #routeLatency}; {@code parallelHttpProcessing} sends them from a scatter-gather and {@code sequentialHttpProcessing}
+ * one after the other. The multi-threaded variants of the old test run the same flows from 10 threads.
+ */
+@Fork(1)
+@State(Benchmark)
+@OutputTimeUnit(MILLISECONDS)
+public class ScatterGatherRouterBenchmark {
+
+  private static final String APP_NAME = "scatter-gather-benchmark";
+  private static final String BACKEND_PORT_SYSTEM_PROPERTY = "scatterGatherBackendPort";
+  private static final String LATENCY_QUERY_PARAM = "latency=";
+
+  @Param({"2", "3", "8"})
+  public int routes;
+
+  @Param({"0", "5"})
+  public int routeLatency;
+
+  @Param({"1024", "1048576"})
+  public int payloadSize;
+
+  private Path workingDir;
+  private HttpServer backend;
+  private ExecutorService backendExecutor;
+  private ConnectorApplication application;
+  private String payload;
+  private Map<String, Integer> variables;
+
+  @Setup
+  public void setUp() throws Exception {
+    startBackend();
+    setProperty(BACKEND_PORT_SYSTEM_PROPERTY, Integer.toString(backend.getAddress().getPort()));
+    workingDir = createTempDirectory("scatter-gather-benchmark");
+    Path config = workingDir.resolve(APP_NAME + ".xml");
+    write(config, createConfig(routes).getBytes(UTF_8));
+    payload = repeat('a', payloadSize);
+    variables = singletonMap("latency", routeLatency);
+
+    application = new ConnectorApplication(APP_NAME, config)
+        .dependingOnPlugin("org.mule.connectors", "mule-http-connector");
+    application.deploy(workingDir);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    try {
+      application.undeploy();
+    } finally {
+      backend.stop(0);
+      backendExecutor.shutdownNow();
+      clearProperty(BACKEND_PORT_SYSTEM_PROPERTY);
+      deleteQuietly(workingDir.toFile());
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CoreEvent parallelProcessing() throws Exception {
+    return application.run("parallelProcessing", payload, variables);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CoreEvent parallelHttpProcessing() throws Exception {
+    return application.run("parallelHttpProcessing", payload, variables);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  @Threads(10)
+  public CoreEvent parallelHttpMultiThreadedProcessing() throws Exception {
+    return application.run("parallelHttpProcessing", payload, variables);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  @Threads(10)
+  public CoreEvent sequentialHttpMultiThreadedProcessing() throws Exception {
+    return application.run("sequentialHttpProcessing", payload, variables);
+  }
+
+  private void startBackend() throws IOException {
+    backendExecutor = newCachedThreadPool();
+    backend = HttpServer.create(new InetSocketAddress(getLoopbackAddress(), 0), 0);
+    backend.createContext("/do", ScatterGatherRouterBenchmark::echo);
+    backend.setExecutor(backendExecutor);
+    backend.start();
+  }
+
+  private static void echo(HttpExchange exchange) throws IOException {
+    try {
+      String query = exchange.getRequestURI().getQuery();
+      sleep(parseInt(query.substring(query.indexOf(LATENCY_QUERY_PARAM) + LATENCY_QUERY_PARAM.length())));
+      byte[] body = toByteArray(exchange.getRequestBody());
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream response = exchange.getResponseBody()) {
+        response.write(body);
+      }
+    } catch (InterruptedException e) {
+      currentThread().interrupt();
+      exchange.sendResponseHeaders(500, -1);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static String createConfig(int routes) {
+    StringBuilder config = new StringBuilder()
+        .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        .append("<mule xmlns=\"http://www.mulesoft.org/schema/mule/core\"\n")
+        .append("      xmlns:http=\"http://www.mulesoft.org/schema/mule/http\"\n")
+        .append("      xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n")
+        .append("      xsi:schemaLocation=\"http://www.mulesoft.org/schema/mule/core ")
+        .append("http://www.mulesoft.org/schema/mule/core/current/mule.xsd\n")
+        .append("      http://www.mulesoft.org/schema/mule/http ")
+        .append("http://www.mulesoft.org/schema/mule/http/current/mule-http.xsd\">\n")
+        .append("    <http:request-config name=\"backend\">\n")
+        .append("        <http:request-connection host=\"").append(getLoopbackAddress().getHostAddress())
+        .append("\" port=\"${").append(BACKEND_PORT_SYSTEM_PROPERTY).append("}\"/>\n")
+        .append("    </http:request-config>\n");
+
+    String waitRoute = "<set-payload value=\"#[dw::Runtime::wait(payload, vars.latency)]\"/>";
+    String httpRoute = "<http:request config-ref=\"backend\" method=\"POST\" path=\"/do\">"
+        + "<http:query-params>#[{latency: vars.latency}]</http:query-params></http:request>";
+
+    config.append("    <flow name=\"parallelProcessing\">\n");
+    appendScatterGather(config, routes, waitRoute);
+    config.append("    </flow>\n")
+        .append("    <flow name=\"parallelHttpProcessing\">\n");
+    appendScatterGather(config, routes, httpRoute);
+    config.append("    </flow>\n")
+        .append("    <flow name=\"sequentialHttpProcessing\">\n");
+    for (int i = 0; i < routes; i++) {
+      config.append("        ").append(httpRoute).append("\n");
+    }
+    return config.append("    </flow>\n")
+        .append("</mule>\n").toString();
+  }
+
+  private static void appendScatterGather(StringBuilder config, int routes, String route) {
+    config.append("        <scatter-gather>\n");
+    for (int i = 0; i < routes; i++) {
+      config.append("            <route>").append(route).append("</route>\n");
+    }
+    config.append("        </scatter-gather>\n");
+  }
+
+}
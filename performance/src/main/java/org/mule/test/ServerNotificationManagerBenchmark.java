@@ -0,0 +1,315 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import org.mule.runtime.api.notification.AbstractServerNotification;
+import org.mule.runtime.api.notification.NotificationListener;
+import org.mule.runtime.core.api.context.notification.ServerNotificationManager;
+import org.mule.service.scheduler.internal.service.DefaultSchedulerService;
+import org.mule.tck.junit4.AbstractMuleContextTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the cost of {@link ServerNotificationManager#fireNotification} with several concurrent producers, migrated from the
+ * {@code ServerNotificationManagerPerformanceTestCase} ContiPerf test.
+ * <p>
+ * Every notification type has {@link #listenersPerType} listeners registered: synchronous ones, asynchronous light ones and
+ * asynchronous IO ones, the latter parking for 0.1ms on each notification. The {@code dispatch*} benchmarks only measure the
+ * producer side, while the {@code dispatchAndNotify*} ones also wait for all the listeners to get the notification. The
+ * {@code dispatchWithoutListeners} benchmark fires a notification type that is enabled but has no listener registered, which
+ * is the cost paid by every component firing notifications nobody listens to.
+ * <p>
+ * At most {@link #MAX_IN_FLIGHT_NOTIFICATIONS} notifications can be pending delivery, past that a producer waits for the
+ * listeners to catch up. Otherwise the producers of the asynchronous {@code dispatch*} benchmarks would outrun the listeners and
+ * measure how fast the dispatch queues grow.
+ */
+@Fork(1)
+@Threads(4)
+@State(Benchmark)
+@OutputTimeUnit(MICROSECONDS)
+public class ServerNotificationManagerBenchmark extends AbstractMuleContextTestCase {
+
+  private static final int MAX_IN_FLIGHT_NOTIFICATIONS = 1024;
+
+  @Param({"0", "1", "10", "100"})
+  public int listenersPerType;
+
+  private DefaultSchedulerService schedulerService;
+  private ServerNotificationManager notificationManager;
+  private final List<NotificationListener<?>> listeners = new ArrayList<>();
+  private Semaphore inFlightDeliveries;
+  private int maxInFlightDeliveries;
+
+  public ServerNotificationManagerBenchmark() {
+    setStartContext(true);
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    setUpMuleContext();
+
+    notificationManager = muleContext.getNotificationManager();
+    notificationManager.addInterfaceToType(PerfTestIOServerNotificationListener.class, PerfTestIOServerNotification.class);
+    notificationManager.addInterfaceToType(PerfTestLightServerNotificationListener.class, PerfTestLightServerNotification.class);
+    notificationManager.addInterfaceToType(PerfTestServerSynchronousNotificationListener.class,
+                                           PerfTestServerSynchronousNotification.class);
+    notificationManager.addInterfaceToType(PerfTestUnlistenedServerNotificationListener.class,
+                                           PerfTestUnlistenedServerNotification.class);
+
+    for (int i = 0; i < listenersPerType; ++i) {
+      listeners.add(new PerfTestIOServerNotificationListener());
+      listeners.add(new PerfTestLightServerNotificationListener());
+      listeners.add(new PerfTestServerSynchronousNotificationListener());
+    }
+    listeners.forEach(notificationManager::addListener);
+
+    // One permit per listener that has yet to get a notification
+    maxInFlightDeliveries = max(listenersPerType, 1) * MAX_IN_FLIGHT_NOTIFICATIONS;
+    inFlightDeliveries = new Semaphore(maxInFlightDeliveries);
+  }
+
+  @Override
+  protected void doSetUpBeforeMuleContextCreation() throws Exception {
+    super.doSetUpBeforeMuleContextCreation();
+
+    schedulerService = new DefaultSchedulerService();
+    schedulerService.start();
+  }
+
+  @Override
+  protected Map<String, Object> getStartUpRegistryObjects() {
+    Map<String, Object> registryObjects = new HashMap<>();
+    registryObjects.put(schedulerService.getName(), schedulerService);
+    return registryObjects;
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    // Wait for the pending deliveries before removing the listeners
+    inFlightDeliveries.acquire(maxInFlightDeliveries);
+    listeners.forEach(notificationManager::removeListener);
+    listeners.clear();
+    muleContext.dispose();
+    schedulerService.stop();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public void dispatchWithoutListeners() {
+    notificationManager.fireNotification(new PerfTestUnlistenedServerNotification());
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CountDownLatch dispatchSynchronous() {
+    CountDownLatch latch = new CountDownLatch(listenersPerType);
+    notificationManager.fireNotification(new PerfTestServerSynchronousNotification(latch));
+    return latch;
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CountDownLatch dispatchAsyncLight() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(listenersPerType);
+    inFlightDeliveries.acquire(listenersPerType);
+    notificationManager.fireNotification(new PerfTestLightServerNotification(latch, inFlightDeliveries));
+    return latch;
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CountDownLatch dispatchAsyncIO() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(listenersPerType);
+    inFlightDeliveries.acquire(listenersPerType);
+    notificationManager.fireNotification(new PerfTestIOServerNotification(latch, inFlightDeliveries));
+    return latch;
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CountDownLatch dispatchAndNotifyAsyncLight() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(listenersPerType);
+    notificationManager.fireNotification(new PerfTestLightServerNotification(latch));
+    latch.await();
+    return latch;
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public CountDownLatch dispatchAndNotifyAsyncIO() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(listenersPerType);
+    notificationManager.fireNotification(new PerfTestIOServerNotification(latch));
+    latch.await();
+    return latch;
+  }
+
+  public static class PerfTestLightServerNotificationListener
+      implements NotificationListener<PerfTestLightServerNotification> {
+
+    @Override
+    public void onNotification(PerfTestLightServerNotification notification) {
+      notification.delivered();
+    }
+
+    @Override
+    public boolean isBlocking() {
+      return false;
+    }
+  }
+
+  public static class PerfTestIOServerNotificationListener implements NotificationListener<PerfTestIOServerNotification> {
+
+    @Override
+    public void onNotification(PerfTestIOServerNotification notification) {
+      // 0.1ms
+      parkNanos(100000);
+      notification.delivered();
+    }
+  }
+
+  public static class PerfTestServerSynchronousNotificationListener
+      implements NotificationListener<PerfTestServerSynchronousNotification> {
+
+    @Override
+    public boolean isBlocking() {
+      return false;
+    }
+
+    @Override
+    public void onNotification(PerfTestServerSynchronousNotification notification) {
+      notification.delivered();
+    }
+  }
+
+  public interface PerfTestUnlistenedServerNotificationListener
+      extends NotificationListener<PerfTestUnlistenedServerNotification> {
+    // empty
+  }
+
+  public abstract static class PerfTestLatchServerNotification extends AbstractServerNotification {
+
+    private final transient CountDownLatch latch;
+    private final transient Semaphore inFlightDeliveries;
+
+    public PerfTestLatchServerNotification(CountDownLatch latch, Semaphore inFlightDeliveries, int action) {
+      super("", action);
+      this.latch = latch;
+      this.inFlightDeliveries = inFlightDeliveries;
+    }
+
+    /**
+     * Called by each listener when it gets this notification.
+     */
+    public void delivered() {
+      latch.countDown();
+      if (inFlightDeliveries != null) {
+        inFlightDeliveries.release();
+      }
+    }
+  }
+
+  public static class PerfTestIOServerNotification extends PerfTestLatchServerNotification {
+
+    static {
+      registerAction("PerfTestIOServerNotification", CUSTOM_EVENT_ACTION_START_RANGE + 1);
+    }
+
+    public PerfTestIOServerNotification(CountDownLatch latch) {
+      this(latch, null);
+    }
+
+    public PerfTestIOServerNotification(CountDownLatch latch, Semaphore inFlightDeliveries) {
+      super(latch, inFlightDeliveries, CUSTOM_EVENT_ACTION_START_RANGE + 1);
+    }
+
+    @Override
+    public String getEventName() {
+      return "PerfTestIOServerNotification";
+    }
+  }
+
+  public static class PerfTestLightServerNotification extends PerfTestLatchServerNotification {
+
+    static {
+      registerAction("PerfTestLightServerNotification", CUSTOM_EVENT_ACTION_START_RANGE + 2);
+    }
+
+    public PerfTestLightServerNotification(CountDownLatch latch) {
+      this(latch, null);
+    }
+
+    public PerfTestLightServerNotification(CountDownLatch latch, Semaphore inFlightDeliveries) {
+      super(latch, inFlightDeliveries, CUSTOM_EVENT_ACTION_START_RANGE + 2);
+    }
+
+    @Override
+    public String getEventName() {
+      return "PerfTestLightServerNotification";
+    }
+  }
+
+  public static class PerfTestServerSynchronousNotification extends PerfTestLatchServerNotification {
+
+    static {
+      registerAction("PerfTestServerBlockingNotification", CUSTOM_EVENT_ACTION_START_RANGE + 3);
+    }
+
+    public PerfTestServerSynchronousNotification(CountDownLatch latch) {
+      super(latch, null, CUSTOM_EVENT_ACTION_START_RANGE + 3);
+    }
+
+    @Override
+    public boolean isSynchronous() {
+      return true;
+    }
+
+    @Override
+    public String getEventName() {
+      return "PerfTestServerSynchronousNotification";
+    }
+  }
+
+  public static class PerfTestUnlistenedServerNotification extends AbstractServerNotification {
+
+    static {
+      registerAction("PerfTestUnlistenedServerNotification", CUSTOM_EVENT_ACTION_START_RANGE + 4);
+    }
+
+    public PerfTestUnlistenedServerNotification() {
+      super("", CUSTOM_EVENT_ACTION_START_RANGE + 4);
+    }
+
+    @Override
+    public String getEventName() {
+      return "PerfTestUnlistenedServerNotification";
+    }
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+import org.mule.runtime.core.internal.lifecycle.phases.LifecycleObjectSorter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Sorter benchmarks over apps generated by {@link SyntheticAppGenerator} with 1k, 5k and 20k components, to see how the
+ * dependency graph scales with the size of the app. The components are split into flows, sub-flows, global configs and object
+ * stores in the fixed ratios of {@link SyntheticAppGenerator#SyntheticAppGenerator(int)}.
+ */
+@State(Scope.Benchmark)
+public class SorterGeneratedAppBenchmark extends AbstractSorterBenchmark {
+
+  @Param({"1000", "5000", "20000"})
+  public int components;
+
+  private Path configFile;
+
+  @Override
+  protected String getConfigFile() {
+    if (configFile == null) {
+      try {
+        configFile = createTempFile("sorter-generated-app", ".xml");
+        new SyntheticAppGenerator(components).writeTo(configFile);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return configFile.toAbsolutePath().toString();
+  }
+
+  @TearDown
+  public void deleteConfigFile() throws IOException {
+    deleteIfExists(configFile);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<Object> generatedAppGraphSorter() {
+    // add objects
+    LifecycleObjectSorter graphSorter = getGraphSorter(resolver);
+    addObjectsToSorter(graphSorter, lookupObjects);
+
+    // sort objects
+    return graphSorter.getSortedObjects();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public void generatedAppGraphSorterAddObjectsOnly() {
+    // add objects
+    LifecycleObjectSorter graphSorter = getGraphSorter(resolver);
+    addObjectsToSorter(graphSorter, lookupObjects);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<Object> generatedAppGraphSorterGetSortedObjectsOnly() {
+    // sort objects
+    return graphSorter.getSortedObjects();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public int generatedAppResolveBeanDependencies() {
+    int dependencies = 0;
+    for (String beanName : lookupObjects.keySet()) {
+      dependencies += resolver.resolveBeanDependencies(beanName).size();
+    }
+    return dependencies;
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<List<Object>> generatedAppAllPhasesGraphSorter() {
+    return sortAllPhasesRebuildingGraph();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<List<Object>> generatedAppAllPhasesMemoizedGraphSorter() {
+    return sortAllPhasesWithMemoizedGraph();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<List<Object>> generatedAppAllPhasesMemoizedGraphSorterSortOnly() {
+    // graph already resolved for the artifact, only the per phase cost
+    return sortAllPhases(memoizedGraph);
+  }
+
+}
@@ -52,4 +52,23 @@ public class SorterLargeAppBenchmark extends AbstractSorterBenchmark {
     return graphSorter.getSortedObjects();
   }
 
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<List<Object>> largeAppAllPhasesGraphSorter() {
+    return sortAllPhasesRebuildingGraph();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<List<Object>> largeAppAllPhasesMemoizedGraphSorter() {
+    return sortAllPhasesWithMemoizedGraph();
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public List<List<Object>> largeAppAllPhasesMemoizedGraphSorterSortOnly() {
+    // graph already resolved for the artifact, only the per phase cost
+    return sortAllPhases(memoizedGraph);
+  }
+
 }
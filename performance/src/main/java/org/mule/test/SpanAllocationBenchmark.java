@@ -0,0 +1,258 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.test.InternedSpanAttributes.ARTIFACT_ID;
+import static org.mule.test.InternedSpanAttributes.ARTIFACT_TYPE;
+import static org.mule.test.InternedSpanAttributes.CORRELATION_ID;
+import static org.mule.test.InternedSpanAttributes.LOCATION;
+import static org.mule.test.InternedSpanAttributes.THREAD_START_NAME;
+
+import static java.lang.System.nanoTime;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import static io.opentelemetry.api.trace.SpanKind.INTERNAL;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Benchmark;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Allocation of the data of an ended span, from the attributes of the component to the holder handed to the exporter.
+ * <p>
+ * The {@code sdkSpanData} baseline is the path of the OpenTelemetry SDK: a span is started with the attributes of the component
+ * and the event, ended, and turned into the {@link SpanData} a span processor hands to the exporter.
+ * {@code newSpanDataWithInternedAttributes} shares the {@link InternedSpanAttributes} of each component location, and
+ * {@code pooledSpanData} also reuses the holders through a {@link PooledSpanData.Pool}, so nothing is allocated beyond what
+ * the pool could not absorb. Every variant generates the span id of each span with the random {@link IdGenerator} of the SDK
+ * and takes the trace id from the parent, as the SDK does.
+ * <p>
+ * The pooled span data are released as an exporter releases them, a whole batch of {@value #EXPORT_BATCH_SIZE} at a time once
+ * exported, so the pool drains while a batch is being filled. The {@code Contended} variants run with
+ * {@value #CONTENDED_THREADS} threads sharing the pool, holding more span data in their batches than the pool keeps. Run with
+ * {@code -prof gc} to get the allocation per operation, which is the result that matters here.
+ */
+@Fork(1)
+@State(Benchmark)
+@OutputTimeUnit(NANOSECONDS)
+public class SpanAllocationBenchmark {
+
+  private static final String ARTIFACT_ID_VALUE = "app";
+  private static final String ARTIFACT_TYPE_VALUE = "APP";
+  private static final int POOL_CAPACITY = 1024;
+  // The default max export batch size of the batch span processor
+  private static final int EXPORT_BATCH_SIZE = 512;
+  private static final int CONTENDED_THREADS = 4;
+
+  @Param({"10", "100"})
+  public int locations;
+
+  private final InstrumentationScopeInfo instrumentationScopeInfo = InstrumentationScopeInfo.create("org.mule.test");
+  private final InternedSpanAttributes internedAttributes = new InternedSpanAttributes(ARTIFACT_ID_VALUE, ARTIFACT_TYPE_VALUE);
+
+  private final IdGenerator idGenerator = IdGenerator.random();
+
+  private String[] locationNames;
+  private SpanContext parentSpanContext;
+  private String correlationId;
+  private PooledSpanData.Pool pool;
+  // Nothing is released to this one, so it creates a new span data on every acquire
+  private PooledSpanData.Pool unpooled;
+
+  @Setup
+  public void setUp() {
+    locationNames = new String[locations];
+    for (int i = 0; i < locations; i++) {
+      locationNames[i] = "flow/processors/" + i;
+      internedAttributes.getComponentAttributes(locationNames[i]);
+    }
+
+    parentSpanContext =
+        SpanContext.create(TraceId.fromLongs(1, 1), SpanId.fromLong(1), TraceFlags.getSampled(), TraceState.getDefault());
+    correlationId = randomUUID().toString();
+
+    pool = new PooledSpanData.Pool(instrumentationScopeInfo, Resource.getDefault(), POOL_CAPACITY);
+    unpooled = new PooledSpanData.Pool(instrumentationScopeInfo, Resource.getDefault(), 1);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public void sdkSpanData(SpanCounter counter, SdkSpans sdkSpans, Blackhole blackhole) {
+    String location = locationNames[counter.next() % locations];
+    Span span = sdkSpans.tracer.spanBuilder(location)
+        .setSpanKind(INTERNAL)
+        .setParent(sdkSpans.parentContext)
+        .setAttribute(LOCATION, location)
+        .setAttribute(ARTIFACT_ID, ARTIFACT_ID_VALUE)
+        .setAttribute(ARTIFACT_TYPE, ARTIFACT_TYPE_VALUE)
+        .setAttribute(CORRELATION_ID, correlationId)
+        .setAttribute(THREAD_START_NAME, Thread.currentThread().getName())
+        .startSpan();
+    span.end();
+    blackhole.consume(sdkSpans.endedSpanData);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public void newSpanDataWithInternedAttributes(SpanCounter counter, Blackhole blackhole) {
+    String location = locationNames[counter.next() % locations];
+    blackhole.consume(createSpanData(unpooled, location, internedAttributes.getComponentAttributes(location)));
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  public void pooledSpanData(SpanCounter counter, ExportBatch exportBatch, Blackhole blackhole) {
+    String location = locationNames[counter.next() % locations];
+    PooledSpanData spanData = createSpanData(pool, location, internedAttributes.getComponentAttributes(location));
+    blackhole.consume(spanData);
+    exportBatch.add(spanData, pool);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  @Threads(CONTENDED_THREADS)
+  public void sdkSpanDataContended(SpanCounter counter, SdkSpans sdkSpans, Blackhole blackhole) {
+    sdkSpanData(counter, sdkSpans, blackhole);
+  }
+
+  @Benchmark
+  @BenchmarkMode(AverageTime)
+  @Threads(CONTENDED_THREADS)
+  public void pooledSpanDataContended(SpanCounter counter, ExportBatch exportBatch, Blackhole blackhole) {
+    pooledSpanData(counter, exportBatch, blackhole);
+  }
+
+  private PooledSpanData createSpanData(PooledSpanData.Pool pool, String location, Attributes componentAttributes) {
+    long start = nanoTime();
+    SpanContext spanContext = SpanContext.create(parentSpanContext.getTraceId(), idGenerator.generateSpanId(),
+                                                 TraceFlags.getSampled(), TraceState.getDefault());
+    return pool.acquire().set(location, INTERNAL, spanContext, parentSpanContext, componentAttributes, correlationId,
+                              Thread.currentThread().getName(), StatusData.unset(), start, nanoTime());
+  }
+
+  /**
+   * A tracer of the SDK per thread, whose span processor keeps the span data of the last ended span.
+   */
+  @State(Scope.Thread)
+  public static class SdkSpans implements SpanProcessor {
+
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+    private Context parentContext;
+    private SpanData endedSpanData;
+
+    @Setup
+    public void setUp() {
+      tracerProvider = SdkTracerProvider.builder().addSpanProcessor(this).build();
+      tracer = tracerProvider.get("org.mule.test");
+      SpanContext parentSpanContext =
+          SpanContext.create(TraceId.fromLongs(1, 1), SpanId.fromLong(1), TraceFlags.getSampled(), TraceState.getDefault());
+      parentContext = Context.root().with(Span.wrap(parentSpanContext));
+    }
+
+    @TearDown
+    public void tearDown() {
+      tracerProvider.close();
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {}
+
+    @Override
+    public boolean isStartRequired() {
+      return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+      // What the batch and simple span processors do before handing the span to the exporter
+      endedSpanData = span.toSpanData();
+    }
+
+    @Override
+    public boolean isEndRequired() {
+      return true;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+
+  /**
+   * The span data of a thread waiting to be exported, released to the pool all together once the batch is full.
+   */
+  @State(Scope.Thread)
+  public static class ExportBatch {
+
+    private final PooledSpanData[] spans = new PooledSpanData[EXPORT_BATCH_SIZE];
+    private int size;
+    private PooledSpanData.Pool pool;
+
+    private void add(PooledSpanData spanData, PooledSpanData.Pool pool) {
+      this.pool = pool;
+      spans[size++] = spanData;
+      if (size == EXPORT_BATCH_SIZE) {
+        release();
+      }
+    }
+
+    @TearDown(Level.Iteration)
+    public void release() {
+      for (int i = 0; i < size; i++) {
+        pool.release(spans[i]);
+        spans[i] = null;
+      }
+      size = 0;
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class SpanCounter {
+
+    private int current;
+
+    private int next() {
+      current = (current + 1) & Integer.MAX_VALUE;
+      return current;
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.write;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates Mule application configs with a given number of flows, global configs, object stores and cross references between
+ * flows, to see how the deployment and lifecycle steps scale with the size and the shape of an application.
+ * <p>
+ * Every flow references a global config (a global error handler), a sub-flow and up to {@code crossReferences} flows declared
+ * before it, so the dependency graph has cross references but no cycles. There is a sub-flow for every 3 flows. The object
+ * stores are referenced by an idempotent message validator in the flows, in turns, so each of them is a dependency of at least
+ * one flow when there are more flows than object stores. The same parameters and seed always generate the same config.
+ */
+public class SyntheticAppGenerator {
+
+  private static final long DEFAULT_SEED = 42;
+
+  private final int flows;
+  private final int subFlows;
+  private final int configs;
+  private final int objectStores;
+  private final int crossReferences;
+  private final Random random;
+  private String firstMessageProperty;
+
+  /**
+   * Splits {@code components} into flows (60%), sub-flows (20%), global configs (10%) and object stores (10%), with one cross
+   * reference per flow.
+   */
+  public SyntheticAppGenerator(int components) {
+    this(max(components * 6 / 10, 1), max(components / 10, 1), max(components / 10, 1), 1, DEFAULT_SEED);
+  }
+
+  public SyntheticAppGenerator(int flows, int configs, int objectStores, int crossReferences) {
+    this(flows, configs, objectStores, crossReferences, DEFAULT_SEED);
+  }
+
+  public SyntheticAppGenerator(int flows, int configs, int objectStores, int crossReferences, long seed) {
+    this.flows = max(flows, 1);
+    this.subFlows = max(flows / 3, 1);
+    this.configs = max(configs, 1);
+    this.objectStores = objectStores;
+    this.crossReferences = crossReferences;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Adds a flow triggered as soon as the app starts that sets the given system property, so the time to the first message
+   * processed by the app can be observed from outside of it.
+   */
+  public SyntheticAppGenerator withFirstMessageProbe(String systemProperty) {
+    this.firstMessageProperty = systemProperty;
+    return this;
+  }
+
+  /**
+   * Writes the generated config to {@code file}.
+   */
+  public void writeTo(Path file) throws IOException {
+    write(file, generate().getBytes(UTF_8));
+  }
+
+  public String generate() {
+    StringBuilder config = new StringBuilder()
+        .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+        .append("<mule xmlns=\"http://www.mulesoft.org/schema/mule/core\"\n")
+        .append("      xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n")
+        .append("      xsi:schemaLocation=\"http://www.mulesoft.org/schema/mule/core ")
+        .append("http://www.mulesoft.org/schema/mule/core/current/mule.xsd\">\n");
+
+    for (int i = 0; i < objectStores; i++) {
+      config.append("    <object name=\"objectStore").append(i)
+          .append("\" class=\"org.mule.runtime.api.store.SimpleMemoryObjectStore\"/>\n");
+    }
+
+    for (int i = 0; i < configs; i++) {
+      config.append("    <error-handler name=\"errorHandler").append(i).append("\">\n")
+          .append("        <on-error-continue>\n")
+          .append("            <logger level=\"DEBUG\" message=\"errorHandler").append(i).append("\"/>\n")
+          .append("        </on-error-continue>\n")
+          .append("    </error-handler>\n");
+    }
+
+    for (int i = 0; i < subFlows; i++) {
+      config.append("    <sub-flow name=\"subFlow").append(i).append("\">\n")
+          .append("        <set-variable variableName=\"subFlow\" value=\"").append(i).append("\"/>\n")
+          .append("        <logger level=\"DEBUG\"/>\n")
+          .append("    </sub-flow>\n");
+    }
+
+    for (int i = 0; i < flows; i++) {
+      config.append("    <flow name=\"flow").append(i).append("\">\n")
+          .append("        <set-variable variableName=\"flow\" value=\"").append(i).append("\"/>\n")
+          .append("        <flow-ref name=\"subFlow").append(random.nextInt(subFlows)).append("\"/>\n");
+      if (objectStores > 0) {
+        config.append("        <idempotent-message-validator objectStore=\"objectStore").append(i % objectStores)
+            .append("\"/>\n");
+      }
+      for (int j = 0; i > 0 && j < crossReferences; j++) {
+        config.append("        <flow-ref name=\"flow").append(random.nextInt(i)).append("\"/>\n");
+      }
+      config.append("        <error-handler ref=\"errorHandler").append(random.nextInt(configs)).append("\"/>\n")
+          .append("    </flow>\n");
+    }
+
+    if (firstMessageProperty != null) {
+      config.append("    <flow name=\"firstMessage\">\n")
+          .append("        <scheduler>\n")
+          .append("            <scheduling-strategy>\n")
+          .append("                <fixed-frequency frequency=\"1\" timeUnit=\"DAYS\"/>\n")
+          .append("            </scheduling-strategy>\n")
+          .append("        </scheduler>\n")
+          .append("        <set-payload value=\"#[java!java::lang::System::setProperty('").append(firstMessageProperty)
+          .append("', 'true')]\"/>\n")
+          .append("    </flow>\n");
+    }
+
+    return config.append("</mule>\n").toString();
+  }
+
+}
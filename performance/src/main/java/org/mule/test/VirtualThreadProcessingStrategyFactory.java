@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.BLOCKING;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.IO_RW;
+
+import static java.lang.Math.max;
+
+import static org.slf4j.LoggerFactory.getLogger;
+import static reactor.core.publisher.Flux.from;
+import static reactor.core.scheduler.Schedulers.fromExecutorService;
+
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.FlowConstruct;
+import org.mule.runtime.core.api.event.CoreEvent;
+import org.mule.runtime.core.api.processor.ReactiveProcessor;
+import org.mule.runtime.core.api.processor.Sink;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+import org.mule.runtime.core.internal.construct.BackPressureReason;
+import org.mule.runtime.core.internal.processor.strategy.ProactorStreamEmitterProcessingStrategyFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Proactor based processing strategy where {@link ReactiveProcessor.ProcessingType#BLOCKING} and
+ * {@link ReactiveProcessor.ProcessingType#IO_RW} processors are run on virtual threads instead of the elastic IO scheduler.
+ * <p>
+ * Once such a processor completes, the event goes back to a CPU_LITE thread as it does with the Proactor strategy, so the rest
+ * of the pipeline does not run on the virtual thread. Every other processing type, the sink and the back-pressure handling are
+ * the ones of the Proactor strategy.
+ * <p>
+ * Virtual threads are obtained reflectively so this module still compiles on Java 17; creating the strategy on a JVM without
+ * them fails with an {@link IllegalStateException}.
+ */
+public class VirtualThreadProcessingStrategyFactory extends ProactorStreamEmitterProcessingStrategyFactory {
+
+  @Override
+  public ProcessingStrategy create(MuleContext muleContext, String schedulersNamePrefix) {
+    org.mule.runtime.api.scheduler.Scheduler cpuLightScheduler = muleContext.getSchedulerService()
+        .cpuLightScheduler(muleContext.getSchedulerBaseConfig().withName(schedulersNamePrefix + "." + CPU_LITE.name()));
+    return new VirtualThreadProcessingStrategy(super.create(muleContext, schedulersNamePrefix), createVirtualThreadExecutor(),
+                                               cpuLightScheduler, getMaxConcurrency());
+  }
+
+  private static ExecutorService createVirtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Virtual threads are not available in this JVM, Java 21 or later is required", e);
+    }
+  }
+
+  static class VirtualThreadProcessingStrategy implements ProcessingStrategy, Startable, Stoppable, Disposable {
+
+    private static final Logger LOGGER = getLogger(VirtualThreadProcessingStrategy.class);
+
+    private final ProcessingStrategy delegate;
+    private final ExecutorService virtualThreadExecutor;
+    private final Scheduler virtualThreadScheduler;
+    private final org.mule.runtime.api.scheduler.Scheduler cpuLightExecutor;
+    private final Scheduler cpuLightScheduler;
+    private final int maxConcurrency;
+
+    VirtualThreadProcessingStrategy(ProcessingStrategy delegate, ExecutorService virtualThreadExecutor,
+                                    org.mule.runtime.api.scheduler.Scheduler cpuLightExecutor, int maxConcurrency) {
+      this.delegate = delegate;
+      this.virtualThreadExecutor = virtualThreadExecutor;
+      this.virtualThreadScheduler = fromExecutorService(virtualThreadExecutor);
+      this.cpuLightExecutor = cpuLightExecutor;
+      this.cpuLightScheduler = fromExecutorService(cpuLightExecutor);
+      this.maxConcurrency = max(maxConcurrency, 1);
+    }
+
+    @Override
+    public Sink createSink(FlowConstruct flowConstruct, ReactiveProcessor pipeline) {
+      return delegate.createSink(flowConstruct, pipeline);
+    }
+
+    @Override
+    public ReactiveProcessor onPipeline(ReactiveProcessor pipeline) {
+      return delegate.onPipeline(pipeline);
+    }
+
+    @Override
+    public ReactiveProcessor onProcessor(ReactiveProcessor processor) {
+      if (processor.getProcessingType() == BLOCKING || processor.getProcessingType() == IO_RW) {
+        // Same fan-out the Proactor strategy does for the IO scheduler, one virtual thread per in-flight event.
+        // Back to CPU_LITE afterwards, so only the processor runs on the virtual thread.
+        return publisher -> from(publisher)
+            .flatMap(event -> Mono.just(event).transform(processor).subscribeOn(virtualThreadScheduler)
+                .publishOn(cpuLightScheduler), maxConcurrency);
+      }
+      return delegate.onProcessor(processor);
+    }
+
+    @Override
+    public boolean isSynchronous() {
+      return delegate.isSynchronous();
+    }
+
+    @Override
+    public void checkBackpressureAccepting(CoreEvent event) throws RejectedExecutionException {
+      delegate.checkBackpressureAccepting(event);
+    }
+
+    @Override
+    public BackPressureReason checkBackpressureEmitting(CoreEvent event) {
+      return delegate.checkBackpressureEmitting(event);
+    }
+
+    @Override
+    public void start() throws MuleException {
+      startIfNeeded(delegate);
+    }
+
+    @Override
+    public void stop() throws MuleException {
+      stopIfNeeded(delegate);
+    }
+
+    @Override
+    public void dispose() {
+      disposeIfNeeded(delegate, LOGGER);
+      virtualThreadScheduler.dispose();
+      virtualThreadExecutor.shutdownNow();
+      cpuLightScheduler.dispose();
+      cpuLightExecutor.stop();
+    }
+  }
+
+}
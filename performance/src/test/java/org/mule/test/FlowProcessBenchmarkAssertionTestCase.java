@@ -6,18 +6,42 @@
  */
 package org.mule.test;
 
+import static java.lang.Boolean.getBoolean;
 import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+
 import org.mule.AbstractBenchmarkAssertionTestCase;
 import org.mule.runtime.core.internal.processor.strategy.BlockingProcessingStrategyFactory;
 import org.mule.runtime.core.internal.processor.strategy.TransactionAwareStreamEmitterProcessingStrategyFactory;
 
+import java.util.Map;
+
 import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 public class FlowProcessBenchmarkAssertionTestCase extends AbstractBenchmarkAssertionTestCase {
 
   private static final String PROCESSING_STRATEGY_PARAM = "processingStrategyFactory";
+  private static final String ENABLE_PERFORMANCE_TESTS_SYSTEM_PROPERTY = "enablePerformanceTests";
+
+  // Older JMH versions prefix the gc profiler results with a middle dot.
+  private static final String ALLOCATION_RATE_NORM = "gc.alloc.rate.norm";
+  private static final String LEGACY_ALLOCATION_RATE_NORM = "·gc.alloc.rate.norm";
+
+  // Bytes allocated per event by a null processor flow on a HotSpot JDK 17 with G1, with some headroom. Raise them only when
+  // an allocation is added on purpose, after measuring the new value with "-prof gc" divided by the events per operation.
+  private static final double STREAM_FLOW_DEFAULT_BYTES_PER_EVENT = 6500;
+  private static final double STREAM_FLOW_SYNCHRONOUS_BYTES_PER_EVENT = 4200;
+  private static final double BLOCKING_FLOW_DEFAULT_BYTES_PER_EVENT = 9000;
 
   @Test
   public void processStreamOf1000FlowDefault() {
@@ -38,5 +62,52 @@ public class FlowProcessBenchmarkAssertionTestCase extends AbstractBenchmarkAsse
                           9, MILLISECONDS, 7800000);
   }
 
+  @Test
+  public void allocationPerEventStreamFlowDefault() throws RunnerException {
+    assertAllocationPerEvent("processSourceStream", TransactionAwareStreamEmitterProcessingStrategyFactory.class,
+                             new FlowNullProcessorBenchmark().getStreamIterations(), STREAM_FLOW_DEFAULT_BYTES_PER_EVENT);
+  }
+
+  @Test
+  public void allocationPerEventStreamFlowSynchronous() throws RunnerException {
+    assertAllocationPerEvent("processSourceStream", BlockingProcessingStrategyFactory.class,
+                             new FlowNullProcessorBenchmark().getStreamIterations(), STREAM_FLOW_SYNCHRONOUS_BYTES_PER_EVENT);
+  }
+
+  @Test
+  public void allocationPerEventBlockingFlowDefault() throws RunnerException {
+    assertAllocationPerEvent("processSourceBlocking", TransactionAwareStreamEmitterProcessingStrategyFactory.class, 1,
+                             BLOCKING_FLOW_DEFAULT_BYTES_PER_EVENT);
+  }
+
+  /**
+   * Runs a {@link FlowNullProcessorBenchmark} with the gc profiler and asserts the bytes allocated per event are within the
+   * given budget. When performance tests are disabled only a short run is done to check the benchmark works.
+   */
+  private void assertAllocationPerEvent(String benchmark, Class<?> processingStrategyFactory, int eventsPerOperation,
+                                        double bytesPerEventBudget)
+      throws RunnerException {
+    boolean performanceTestsEnabled = getBoolean(ENABLE_PERFORMANCE_TESTS_SYSTEM_PROPERTY);
+    int iterations = performanceTestsEnabled ? 10 : 1;
+
+    RunResult runResult = new Runner(new OptionsBuilder()
+        .include(FlowNullProcessorBenchmark.class.getName() + "." + benchmark + "$")
+        .param(PROCESSING_STRATEGY_PARAM, processingStrategyFactory.getCanonicalName())
+        .addProfiler(GCProfiler.class)
+        .threads(1)
+        .forks(1)
+        .warmupIterations(iterations)
+        .measurementIterations(iterations)
+        .build()).runSingle();
+
+    Map<String, Result> secondaryResults = runResult.getSecondaryResults();
+    Result allocation = secondaryResults.getOrDefault(ALLOCATION_RATE_NORM, secondaryResults.get(LEGACY_ALLOCATION_RATE_NORM));
+    assertThat(allocation, notNullValue());
+
+    if (performanceTestsEnabled) {
+      assertThat(benchmark + " with " + processingStrategyFactory.getSimpleName() + " bytes per event",
+                 allocation.getScore() / eventsPerOperation, lessThanOrEqualTo(bytesPerEventBudget));
+    }
+  }
 
 }
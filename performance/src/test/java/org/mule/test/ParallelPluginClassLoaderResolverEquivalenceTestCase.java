@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static java.util.stream.Collectors.joining;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import org.mule.runtime.module.artifact.api.classloader.ArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.classloader.LookupStrategy;
+import org.mule.runtime.module.artifact.api.classloader.MuleDeployableArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.descriptor.ArtifactPluginDescriptor;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the {@link ParallelPluginClassLoaderResolver} of {@link PluginClassloaderGraphBenchmark} builds the same plugin
+ * classloaders as the sequential resolver, with the same lookup policies, so both benchmarks measure the same result.
+ */
+public class ParallelPluginClassLoaderResolverEquivalenceTestCase extends PluginClassloaderGraphBenchmark {
+
+  private static final int PLUGINS = 12;
+  private static final int DEPENDENCY_DEPTH = 3;
+
+  @Before
+  public void setUpBenchmark() throws IOException {
+    plugins = PLUGINS;
+    dependencyDepth = DEPENDENCY_DEPTH;
+    setup();
+  }
+
+  @After
+  public void tearDownBenchmark() {
+    tearDown();
+  }
+
+  @Test
+  public void parallelResolverBuildsSamePluginClassLoaders() {
+    Map<String, Map<String, String>> sequential = describePluginClassLoaders(createApplicationClassLoaderWithPlugins());
+    Map<String, Map<String, String>> parallel =
+        describePluginClassLoaders(createApplicationClassLoaderWithPluginsInParallel());
+
+    assertThat(sequential.size(), is(PLUGINS));
+    assertThat(parallel, equalTo(sequential));
+  }
+
+  @Test
+  public void dependenciesAreBuiltInEarlierLevels() {
+    List<List<ArtifactPluginDescriptor>> levels =
+        new ParallelPluginClassLoaderResolver(artifactClassLoaderResolver, ForkJoinPool.commonPool(), getPluginDescriptors())
+            .getDependencyLevels();
+
+    assertThat(levels, hasSize(DEPENDENCY_DEPTH));
+    Set<String> built = new HashSet<>();
+    for (List<ArtifactPluginDescriptor> level : levels) {
+      for (ArtifactPluginDescriptor plugin : level) {
+        plugin.getClassLoaderConfiguration().getDependencies()
+            .forEach(dependency -> assertThat(built.contains(dependency.getDescriptor().getArtifactId()), is(true)));
+      }
+      level.forEach(plugin -> built.add(plugin.getBundleDescriptor().getArtifactId()));
+    }
+    assertThat(built, hasSize(PLUGINS));
+  }
+
+  /**
+   * @return for each plugin classloader, the lookup strategy of each package exported by any plugin, with the artifacts it
+   *         looks the package up in.
+   */
+  private Map<String, Map<String, String>> describePluginClassLoaders(MuleDeployableArtifactClassLoader applicationClassLoader) {
+    Map<String, Map<String, String>> description = new LinkedHashMap<>();
+    for (ArtifactClassLoader pluginClassLoader : applicationClassLoader.getArtifactPluginClassLoaders()) {
+      Map<String, String> strategies = new LinkedHashMap<>();
+      for (ArtifactPluginDescriptor plugin : getPluginDescriptors()) {
+        for (String exportedPackage : plugin.getClassLoaderConfiguration().getExportedPackages()) {
+          LookupStrategy strategy = pluginClassLoader.getClassLoaderLookupPolicy().getPackageLookupStrategy(exportedPackage);
+          strategies.put(exportedPackage, strategy.getClass().getSimpleName() + strategy
+              .getClassLoaders(pluginClassLoader.getClassLoader()).stream()
+              .map(classLoader -> classLoader instanceof ArtifactClassLoader
+                  ? ((ArtifactClassLoader) classLoader).getArtifactId()
+                  : classLoader.getClass().getName())
+              .collect(joining(",", "[", "]")));
+        }
+      }
+      description.put(pluginClassLoader.getArtifactId(), strategies);
+    }
+    return description;
+  }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.mule.test.InternedSpanAttributes.ARTIFACT_ID;
+import static org.mule.test.InternedSpanAttributes.ARTIFACT_TYPE;
+import static org.mule.test.InternedSpanAttributes.CORRELATION_ID;
+import static org.mule.test.InternedSpanAttributes.LOCATION;
+import static org.mule.test.InternedSpanAttributes.THREAD_START_NAME;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static io.opentelemetry.api.trace.SpanKind.INTERNAL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PooledSpanDataTestCase {
+
+  private static final String LOCATION_VALUE = "flow/processors/0";
+  private static final String CORRELATION_ID_VALUE = "correlation";
+  private static final String THREAD_NAME = "cpuLight.01";
+
+  private final InternedSpanAttributes internedAttributes = new InternedSpanAttributes("app", "APP");
+
+  private PooledSpanData.Pool pool;
+  private SpanContext spanContext;
+
+  @Before
+  public void setUp() {
+    pool = new PooledSpanData.Pool(InstrumentationScopeInfo.create("org.mule.test"), Resource.getDefault(), 16);
+    spanContext =
+        SpanContext.create(TraceId.fromLongs(1, 1), SpanId.fromLong(2), TraceFlags.getSampled(), TraceState.getDefault());
+  }
+
+  @Test
+  public void getReturnsComponentAndEventAttributes() {
+    Attributes attributes = acquireSpanData().getAttributes();
+
+    assertThat(attributes.get(LOCATION), is(LOCATION_VALUE));
+    assertThat(attributes.get(ARTIFACT_ID), is("app"));
+    assertThat(attributes.get(ARTIFACT_TYPE), is("APP"));
+    assertThat(attributes.get(CORRELATION_ID), is(CORRELATION_ID_VALUE));
+    assertThat(attributes.get(THREAD_START_NAME), is(THREAD_NAME));
+    assertThat(attributes.get(stringKey("unknown")), is(nullValue()));
+    assertThat(attributes.size(), is(5));
+    assertThat(attributes.isEmpty(), is(false));
+  }
+
+  @Test
+  public void forEachAndAsMapVisitTheSameAttributes() {
+    Attributes attributes = acquireSpanData().getAttributes();
+    Map<AttributeKey<?>, Object> visited = new HashMap<>();
+    attributes.forEach(visited::put);
+
+    assertThat(visited, is(aMapWithSize(5)));
+    assertThat(visited.get(LOCATION), is(LOCATION_VALUE));
+    assertThat(visited.get(CORRELATION_ID), is(CORRELATION_ID_VALUE));
+    assertThat(visited.get(THREAD_START_NAME), is(THREAD_NAME));
+    assertThat(attributes.asMap(), equalTo(visited));
+    assertThat(attributes.toBuilder().build().asMap(), equalTo(visited));
+  }
+
+  @Test
+  public void releasedSpanDataIsReused() {
+    PooledSpanData spanData = acquireSpanData();
+    pool.release(spanData);
+
+    assertThat(pool.acquire(), is(sameInstance(spanData)));
+    assertThat(pool.acquire(), is(not(sameInstance(spanData))));
+  }
+
+  @Test
+  public void releasedSpanDataHasNoAttributes() {
+    PooledSpanData spanData = acquireSpanData();
+    pool.release(spanData);
+    Attributes attributes = spanData.getAttributes();
+    Map<AttributeKey<?>, Object> visited = new HashMap<>();
+    attributes.forEach(visited::put);
+
+    assertThat(attributes.get(LOCATION), is(nullValue()));
+    assertThat(attributes.get(CORRELATION_ID), is(nullValue()));
+    assertThat(attributes.size(), is(0));
+    assertThat(attributes.isEmpty(), is(true));
+    assertThat(visited, is(anEmptyMap()));
+    assertThat(attributes.asMap(), is(anEmptyMap()));
+    assertThat(spanData.getTotalAttributeCount(), is(0));
+  }
+
+  @Test
+  public void fullPoolDropsReleasedSpanData() {
+    PooledSpanData.Pool singleInstancePool =
+        new PooledSpanData.Pool(InstrumentationScopeInfo.create("org.mule.test"), Resource.getDefault(), 1);
+    PooledSpanData first = singleInstancePool.acquire();
+    PooledSpanData second = singleInstancePool.acquire();
+    singleInstancePool.release(first);
+    singleInstancePool.release(second);
+
+    assertThat(singleInstancePool.acquire(), is(sameInstance(first)));
+    PooledSpanData created = singleInstancePool.acquire();
+    assertThat(created, is(not(sameInstance(first))));
+    assertThat(created, is(not(sameInstance(second))));
+  }
+
+  private PooledSpanData acquireSpanData() {
+    return pool.acquire().set(LOCATION_VALUE, INTERNAL, spanContext, SpanContext.getInvalid(),
+                              internedAttributes.getComponentAttributes(LOCATION_VALUE), CORRELATION_ID_VALUE, THREAD_NAME,
+                              StatusData.unset(), 1, 2);
+  }
+
+}
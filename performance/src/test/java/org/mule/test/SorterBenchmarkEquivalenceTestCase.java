@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the rebuilding and memoized variants of {@link AbstractSorterBenchmark} do the same work on the large app, so their
+ * results can be compared: for every phase both sort the same objects, and both honor the dependencies between them in the
+ * direction of the phase.
+ */
+public class SorterBenchmarkEquivalenceTestCase extends AbstractSorterBenchmark {
+
+  @Override
+  protected String getConfigFile() {
+    return "benchmark/large-app.xml";
+  }
+
+  @Override
+  @Before
+  public void setUpSorters() throws Exception {
+    super.setUpSorters();
+  }
+
+  @Test
+  public void memoizedGraphSortsSameObjectsAsRebuiltGraph() {
+    List<List<Object>> rebuilt = sortAllPhasesRebuildingGraph();
+    List<List<Object>> memoized = sortAllPhasesWithMemoizedGraph();
+
+    assertThat(memoized, hasSize(phaseInterfaces.length));
+    for (int i = 0; i < phaseInterfaces.length; i++) {
+      assertThat(memoized.get(i), containsInAnyOrder(rebuilt.get(i).toArray()));
+    }
+  }
+
+  @Test
+  public void rebuiltGraphHonorsDependencies() {
+    assertDependencyOrder(sortAllPhasesRebuildingGraph());
+  }
+
+  @Test
+  public void memoizedGraphHonorsDependencies() {
+    assertDependencyOrder(sortAllPhasesWithMemoizedGraph());
+  }
+
+  private void assertDependencyOrder(List<List<Object>> sortedPhases) {
+    for (int i = 0; i < phaseInterfaces.length; i++) {
+      Map<Object, Integer> positions = new IdentityHashMap<>();
+      List<Object> sortedObjects = sortedPhases.get(i);
+      for (int position = 0; position < sortedObjects.size(); position++) {
+        positions.put(sortedObjects.get(position), position);
+      }
+
+      boolean reverse = isReversePhase(phaseInterfaces[i]);
+      lookupObjects.forEach((name, object) -> {
+        Integer position = positions.get(object);
+        if (position == null) {
+          return;
+        }
+        for (Object dependency : resolver.resolveBeanDependencies(name)) {
+          Integer dependencyPosition = positions.get(dependency);
+          if (dependencyPosition != null && dependency != object) {
+            assertThat(name, dependencyPosition, reverse ? greaterThan(position) : lessThan(position));
+          }
+        }
+      });
+    }
+  }
+
+}
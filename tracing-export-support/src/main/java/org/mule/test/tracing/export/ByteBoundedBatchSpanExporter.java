@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.tracing.export;
+
+import static org.mule.test.tracing.export.SpanDataProtobufUtils.groupByResourceAndScope;
+import static org.mule.test.tracing.export.SpanDataProtobufUtils.toInstrumentationLibrarySpans;
+import static org.mule.test.tracing.export.SpanDataProtobufUtils.toResourceSpans;
+import static org.mule.test.tracing.export.SpanDataProtobufUtils.toSpan;
+
+import static com.google.protobuf.CodedOutputStream.computeMessageSize;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.trace.v1.InstrumentationLibrarySpans;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * {@link SpanExporter} that splits the batches of the span processor so that each OTLP request, before compression, is not
+ * bigger than a number of bytes, and exports each part with an {@link OtlpHttpSpanExporter}. The span processor bounds the
+ * batches by number of spans, which says little about the size of the payload when the spans have many attributes or events.
+ * <p>
+ * The size of each span is taken from its OTLP message built with the public protobuf classes, and the size of a request is
+ * the sum of the sizes of its spans plus the resource and scope around them. The marshaler of the OTLP exporter may write a
+ * newer version of the protocol than those classes, with a few more bytes per span, so every span is given an allowance for
+ * them. A span bigger than the limit is sent alone.
+ */
+public class ByteBoundedBatchSpanExporter implements SpanExporter {
+
+  public static final String GZIP = "gzip";
+  public static final String NONE = "none";
+
+  private static final int RESOURCE_SPANS_FIELD = ExportTraceServiceRequest.RESOURCE_SPANS_FIELD_NUMBER;
+  private static final int SPANS_FIELD = InstrumentationLibrarySpans.SPANS_FIELD_NUMBER;
+  // The length prefixes of the resource spans and of the instrumentation library spans take one byte when they are empty, and
+  // up to five once they have spans
+  private static final int LENGTH_PREFIXES_GROWTH = 8;
+  // The span flags, written by the OTLP exporter but not by the public protobuf classes
+  private static final int SPAN_BYTES_ALLOWANCE = 8;
+
+  private final SpanExporter delegate;
+  private final int maxBatchBytes;
+
+  /**
+   * @param endpoint      the OTLP/HTTP traces endpoint.
+   * @param compression   {@link #GZIP} or {@link #NONE}.
+   * @param maxBatchBytes the maximum size of a request before compression.
+   */
+  public ByteBoundedBatchSpanExporter(String endpoint, String compression, int maxBatchBytes) {
+    this.delegate = OtlpHttpSpanExporter.builder().setEndpoint(endpoint).setCompression(compression).build();
+    this.maxBatchBytes = maxBatchBytes;
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<SpanData> spans) {
+    List<CompletableResultCode> results = new ArrayList<>();
+    for (List<SpanData> batch : split(spans)) {
+      results.add(delegate.export(batch));
+    }
+    return CompletableResultCode.ofAll(results);
+  }
+
+  /**
+   * @param spans the spans to export.
+   * @return the spans of each request exporting them, none of them bigger than the maximum unless it has a single span.
+   */
+  public List<List<SpanData>> split(Collection<SpanData> spans) {
+    BatchSplitter splitter = new BatchSplitter();
+    groupByResourceAndScope(spans).forEach((resource, spansByScope) -> spansByScope
+        .forEach((scope, scopeSpans) -> splitter.add(toResourceSpans(resource)
+            .addInstrumentationLibrarySpans(toInstrumentationLibrarySpans(scope)).build(), scopeSpans)));
+    return splitter.finish();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return delegate.shutdown();
+  }
+
+  /**
+   * Adds the spans of each resource and scope to the current batch until the next one would make its request bigger than the
+   * maximum, and then starts a new batch.
+   */
+  private final class BatchSplitter {
+
+    private final List<List<SpanData>> batches = new ArrayList<>();
+    private List<SpanData> batch = new ArrayList<>();
+    private int batchBytes;
+
+    private void add(ResourceSpans envelope, List<SpanData> spans) {
+      int envelopeBytes = computeMessageSize(RESOURCE_SPANS_FIELD, envelope) + LENGTH_PREFIXES_GROWTH;
+      boolean envelopeInBatch = false;
+      for (SpanData span : spans) {
+        int spanBytes = computeMessageSize(SPANS_FIELD, toSpan(span)) + SPAN_BYTES_ALLOWANCE;
+        if (!batch.isEmpty() && batchBytes + spanBytes + (envelopeInBatch ? 0 : envelopeBytes) > maxBatchBytes) {
+          nextBatch();
+          envelopeInBatch = false;
+        }
+        batch.add(span);
+        batchBytes += spanBytes + (envelopeInBatch ? 0 : envelopeBytes);
+        envelopeInBatch = true;
+      }
+    }
+
+    private void nextBatch() {
+      batches.add(batch);
+      batch = new ArrayList<>();
+      batchBytes = 0;
+    }
+
+    private List<List<SpanData>> finish() {
+      if (!batch.isEmpty()) {
+        nextBatch();
+      }
+      return batches;
+    }
+  }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.tracing.export;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import static com.google.protobuf.ByteString.copyFrom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AnyValue;
+import io.opentelemetry.proto.common.v1.ArrayValue;
+import io.opentelemetry.proto.common.v1.InstrumentationLibrary;
+import io.opentelemetry.proto.common.v1.KeyValue;
+import io.opentelemetry.proto.trace.v1.InstrumentationLibrarySpans;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import io.opentelemetry.proto.trace.v1.Status;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+/**
+ * Builds OTLP {@link ExportTraceServiceRequest}s from {@link SpanData} with the public protobuf classes, instead of the
+ * marshalers internal to the OpenTelemetry exporters.
+ */
+public final class SpanDataProtobufUtils {
+
+  private SpanDataProtobufUtils() {}
+
+  /**
+   * @param spans the spans to export.
+   * @return the request exporting them, with the spans grouped by resource and instrumentation scope.
+   */
+  public static ExportTraceServiceRequest toExportTraceServiceRequest(Collection<SpanData> spans) {
+    ExportTraceServiceRequest.Builder request = ExportTraceServiceRequest.newBuilder();
+    groupByResourceAndScope(spans).forEach((resource, spansByScope) -> {
+      ResourceSpans.Builder resourceSpans = toResourceSpans(resource);
+      spansByScope.forEach((scope, scopeSpans) -> {
+        InstrumentationLibrarySpans.Builder librarySpans = toInstrumentationLibrarySpans(scope);
+        scopeSpans.forEach(span -> librarySpans.addSpans(toSpan(span)));
+        resourceSpans.addInstrumentationLibrarySpans(librarySpans);
+      });
+      request.addResourceSpans(resourceSpans);
+    });
+    return request.build();
+  }
+
+  /**
+   * @param spans the spans to group.
+   * @return the spans by resource and then by instrumentation scope, in the order they were first found.
+   */
+  public static Map<Resource, Map<InstrumentationScopeInfo, List<SpanData>>> groupByResourceAndScope(Collection<SpanData> spans) {
+    return spans.stream()
+        .collect(groupingBy(SpanData::getResource, LinkedHashMap::new,
+                            groupingBy(SpanData::getInstrumentationScopeInfo, LinkedHashMap::new,
+                                       toList())));
+  }
+
+  /**
+   * @return the resource spans of the given resource, with no instrumentation library spans yet.
+   */
+  public static ResourceSpans.Builder toResourceSpans(Resource resource) {
+    ResourceSpans.Builder resourceSpans = ResourceSpans.newBuilder()
+        .setResource(io.opentelemetry.proto.resource.v1.Resource.newBuilder()
+            .addAllAttributes(toKeyValues(resource.getAttributes())));
+    if (resource.getSchemaUrl() != null) {
+      resourceSpans.setSchemaUrl(resource.getSchemaUrl());
+    }
+    return resourceSpans;
+  }
+
+  /**
+   * @return the instrumentation library spans of the given scope, with no spans yet.
+   */
+  public static InstrumentationLibrarySpans.Builder toInstrumentationLibrarySpans(InstrumentationScopeInfo scope) {
+    InstrumentationLibrary.Builder library = InstrumentationLibrary.newBuilder().setName(scope.getName());
+    if (scope.getVersion() != null) {
+      library.setVersion(scope.getVersion());
+    }
+    InstrumentationLibrarySpans.Builder librarySpans = InstrumentationLibrarySpans.newBuilder()
+        .setInstrumentationLibrary(library);
+    if (scope.getSchemaUrl() != null) {
+      librarySpans.setSchemaUrl(scope.getSchemaUrl());
+    }
+    return librarySpans;
+  }
+
+  /**
+   * @return the OTLP span of the given span data.
+   */
+  public static Span toSpan(SpanData spanData) {
+    SpanContext spanContext = spanData.getSpanContext();
+    Span.Builder span = Span.newBuilder()
+        .setTraceId(copyFrom(spanContext.getTraceIdBytes()))
+        .setSpanId(copyFrom(spanContext.getSpanIdBytes()))
+        .setTraceState(encodeTraceState(spanContext))
+        .setName(spanData.getName())
+        .setKind(toSpanKind(spanData.getKind()))
+        .setStartTimeUnixNano(spanData.getStartEpochNanos())
+        .setEndTimeUnixNano(spanData.getEndEpochNanos())
+        .addAllAttributes(toKeyValues(spanData.getAttributes()))
+        .setDroppedAttributesCount(spanData.getTotalAttributeCount() - spanData.getAttributes().size())
+        .setDroppedEventsCount(spanData.getTotalRecordedEvents() - spanData.getEvents().size())
+        .setDroppedLinksCount(spanData.getTotalRecordedLinks() - spanData.getLinks().size())
+        .setStatus(toStatus(spanData.getStatus()));
+    if (spanData.getParentSpanContext().isValid()) {
+      span.setParentSpanId(copyFrom(spanData.getParentSpanContext().getSpanIdBytes()));
+    }
+    for (EventData event : spanData.getEvents()) {
+      span.addEvents(Span.Event.newBuilder()
+          .setName(event.getName())
+          .setTimeUnixNano(event.getEpochNanos())
+          .addAllAttributes(toKeyValues(event.getAttributes()))
+          .setDroppedAttributesCount(event.getTotalAttributeCount() - event.getAttributes().size()));
+    }
+    for (LinkData link : spanData.getLinks()) {
+      span.addLinks(Span.Link.newBuilder()
+          .setTraceId(copyFrom(link.getSpanContext().getTraceIdBytes()))
+          .setSpanId(copyFrom(link.getSpanContext().getSpanIdBytes()))
+          .setTraceState(encodeTraceState(link.getSpanContext()))
+          .addAllAttributes(toKeyValues(link.getAttributes()))
+          .setDroppedAttributesCount(link.getTotalAttributeCount() - link.getAttributes().size()));
+    }
+    return span.build();
+  }
+
+  private static Span.SpanKind toSpanKind(SpanKind kind) {
+    switch (kind) {
+      case INTERNAL:
+        return Span.SpanKind.SPAN_KIND_INTERNAL;
+      case SERVER:
+        return Span.SpanKind.SPAN_KIND_SERVER;
+      case CLIENT:
+        return Span.SpanKind.SPAN_KIND_CLIENT;
+      case PRODUCER:
+        return Span.SpanKind.SPAN_KIND_PRODUCER;
+      case CONSUMER:
+        return Span.SpanKind.SPAN_KIND_CONSUMER;
+      default:
+        return Span.SpanKind.SPAN_KIND_UNSPECIFIED;
+    }
+  }
+
+  private static Status toStatus(StatusData statusData) {
+    Status.Builder status = Status.newBuilder().setMessage(statusData.getDescription());
+    switch (statusData.getStatusCode()) {
+      case OK:
+        return status.setCode(Status.StatusCode.STATUS_CODE_OK).build();
+      case ERROR:
+        return status.setCode(Status.StatusCode.STATUS_CODE_ERROR).build();
+      default:
+        return status.setCode(Status.StatusCode.STATUS_CODE_UNSET).build();
+    }
+  }
+
+  private static String encodeTraceState(SpanContext spanContext) {
+    return spanContext.getTraceState().asMap().entrySet().stream()
+        .map(entry -> entry.getKey() + "=" + entry.getValue())
+        .collect(joining(","));
+  }
+
+  private static Iterable<KeyValue> toKeyValues(Attributes attributes) {
+    List<KeyValue> keyValues = new ArrayList<>(attributes.size());
+    attributes.forEach((key, value) -> keyValues.add(KeyValue.newBuilder().setKey(key.getKey())
+        .setValue(toAnyValue(key, value)).build()));
+    return keyValues;
+  }
+
+  private static AnyValue toAnyValue(AttributeKey<?> key, Object value) {
+    switch (key.getType()) {
+      case STRING:
+        return AnyValue.newBuilder().setStringValue((String) value).build();
+      case BOOLEAN:
+        return AnyValue.newBuilder().setBoolValue((Boolean) value).build();
+      case LONG:
+        return AnyValue.newBuilder().setIntValue((Long) value).build();
+      case DOUBLE:
+        return AnyValue.newBuilder().setDoubleValue((Double) value).build();
+      default:
+        // The array types
+        ArrayValue.Builder array = ArrayValue.newBuilder();
+        for (Object element : (List<?>) value) {
+          array.addValues(toAnyValue(element));
+        }
+        return AnyValue.newBuilder().setArrayValue(array).build();
+    }
+  }
+
+  private static AnyValue toAnyValue(Object value) {
+    if (value instanceof Boolean) {
+      return AnyValue.newBuilder().setBoolValue((Boolean) value).build();
+    } else if (value instanceof Long) {
+      return AnyValue.newBuilder().setIntValue((Long) value).build();
+    } else if (value instanceof Double) {
+      return AnyValue.newBuilder().setDoubleValue((Double) value).build();
+    }
+    return AnyValue.newBuilder().setStringValue(String.valueOf(value)).build();
+  }
+
+}
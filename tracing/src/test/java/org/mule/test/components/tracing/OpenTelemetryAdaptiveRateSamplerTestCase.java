@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing;
+
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.allure.AllureConstants.Profiling.ProfilingServiceStory.OPEN_TELEMETRY_EXPORTER;
+
+import static java.time.Duration.ofSeconds;
+
+import org.mule.test.components.tracing.export.AdaptiveRateSampler;
+
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+
+/**
+ * Runs the sampler test flows with an {@link AdaptiveRateSampler} whose budget is far above the test load, so every root span
+ * is sampled.
+ */
+@Feature(PROFILING)
+@Story(OPEN_TELEMETRY_EXPORTER)
+public class OpenTelemetryAdaptiveRateSamplerTestCase extends OpenTelemetrySamplerTestCase {
+
+  private static final double TARGET_ROOT_SPANS_PER_SECOND = 1000;
+  private static final double MINIMUM_RATIO = 0.01;
+
+  @Override
+  String getSamplerName() {
+    return "always_on";
+  }
+
+  @Override
+  String getSamplerArg() {
+    return null;
+  }
+
+  @Override
+  protected Sampler resolveSampler(Sampler configuredSampler) {
+    return new AdaptiveRateSampler(TARGET_ROOT_SPANS_PER_SECOND, MINIMUM_RATIO, ofSeconds(1));
+  }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing;
+
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.allure.AllureConstants.Profiling.ProfilingServiceStory.OPEN_TELEMETRY_EXPORTER;
+import static org.mule.test.components.tracing.AbstractFullOpenTelemetryTracingTestCase.HTTP_TRACES_PATH;
+import static org.mule.test.components.tracing.OpenTelemetryProtobufSpanUtils.getSpans;
+import static org.mule.test.tracing.export.ByteBoundedBatchSpanExporter.GZIP;
+import static org.mule.test.tracing.export.ByteBoundedBatchSpanExporter.NONE;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
+import static com.linecorp.armeria.common.HttpHeaderNames.CONTENT_ENCODING;
+import static com.linecorp.armeria.common.HttpStatus.OK;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.tracer.exporter.impl.OpenTelemetrySpanExporterFactory;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.runner.RunnerDelegateTo;
+import org.mule.test.tracing.export.ByteBoundedBatchSpanExporter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import com.linecorp.armeria.common.AggregatedHttpRequest;
+import com.linecorp.armeria.common.HttpRequest;
+import com.linecorp.armeria.common.HttpResponse;
+import com.linecorp.armeria.server.AbstractHttpService;
+import com.linecorp.armeria.server.ServerBuilder;
+import com.linecorp.armeria.server.ServiceRequestContext;
+import com.linecorp.armeria.testing.junit4.server.ServerRule;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runners.Parameterized;
+
+@Feature(PROFILING)
+@Story(OPEN_TELEMETRY_EXPORTER)
+@RunnerDelegateTo(Parameterized.class)
+public class OpenTelemetryCompressedExportTestCase extends OpenTelemetryTracingTestCase
+    implements OpenTelemetryTracingTestRunnerConfigAnnotation {
+
+  private static final int FLOW_RUNS = 20;
+  private static final int SPANS_PER_RUN = 2;
+  private static final int MAX_BATCH_BYTES = 2048;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  private final String compression;
+
+  @Rule
+  public final TestHttpServerRule server = new TestHttpServerRule();
+
+  @Parameterized.Parameters(name = "compression: {0}")
+  public static Collection<Object[]> data() {
+    return asList(new Object[][] {
+        {GZIP},
+        {NONE}
+    });
+  }
+
+  public OpenTelemetryCompressedExportTestCase(String compression) {
+    this.compression = compression;
+  }
+
+  @Override
+  protected String getConfigFile() {
+    return "tracing/span-drop.xml";
+  }
+
+  @Test
+  public void spansAreExportedCompressedInBatchesBoundedByBytes() throws Exception {
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    }
+
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return server.getExportedSpans() == FLOW_RUNS * SPANS_PER_RUN;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The spans were not exported. Exported: " + server.getExportedSpans();
+      }
+    });
+
+    assertThat(server.requests.size(), greaterThan(1));
+    for (CapturedRequest request : server.requests) {
+      assertThat(request.contentEncoding, equalTo(GZIP.equals(compression) ? GZIP : null));
+    }
+    assertThat(server.getRequestSizes(), everyItem(lessThanOrEqualTo(MAX_BATCH_BYTES)));
+    if (GZIP.equals(compression)) {
+      assertThat(server.getBodyBytes(), lessThan(server.getRequestBytes()));
+    } else {
+      assertThat(server.getBodyBytes(), equalTo(server.getRequestBytes()));
+    }
+  }
+
+  @Override
+  protected void addBuilders(List<ConfigurationBuilder> builders) {
+    super.addBuilders(builders);
+    builders.add(withSpanExporterFactory(new CompressedSpanExporterFactory()));
+  }
+
+  private class CompressedSpanExporterFactory extends OpenTelemetrySpanExporterFactory {
+
+    @Override
+    protected SpanExporter resolveOpenTelemetrySpanExporter() {
+      return new ByteBoundedBatchSpanExporter("http://localhost:" + server.httpPort() + HTTP_TRACES_PATH, compression,
+                                              MAX_BATCH_BYTES);
+    }
+  }
+
+  private static final class CapturedRequest {
+
+    private final String contentEncoding;
+    private final int bodyBytes;
+    private final ExportTraceServiceRequest request;
+
+    private CapturedRequest(AggregatedHttpRequest httpRequest) throws IOException {
+      this.contentEncoding = httpRequest.headers().get(CONTENT_ENCODING);
+      this.bodyBytes = httpRequest.content().length();
+      InputStream content = new ByteArrayInputStream(httpRequest.content().array());
+      this.request = ExportTraceServiceRequest.parseFrom(GZIP.equals(contentEncoding) ? new GZIPInputStream(content) : content);
+    }
+  }
+
+  private static final class TestHttpServerRule extends ServerRule {
+
+    private final List<CapturedRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void configure(ServerBuilder sb) {
+      sb.service(HTTP_TRACES_PATH, new AbstractHttpService() {
+
+        @Override
+        protected @NotNull HttpResponse doPost(@NotNull ServiceRequestContext ctx, @NotNull HttpRequest req) {
+          return HttpResponse.from(req.aggregate().thenApply(aggregatedRequest -> {
+            try {
+              requests.add(new CapturedRequest(aggregatedRequest));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            return HttpResponse.of(OK);
+          }));
+        }
+      });
+      sb.http(0);
+    }
+
+    private int getExportedSpans() {
+      return requests.stream().mapToInt(captured -> getSpans(captured.request).size()).sum();
+    }
+
+    private List<Integer> getRequestSizes() {
+      return requests.stream().map(captured -> captured.request.getSerializedSize()).collect(toList());
+    }
+
+    private int getRequestBytes() {
+      return requests.stream().mapToInt(captured -> captured.request.getSerializedSize()).sum();
+    }
+
+    private int getBodyBytes() {
+      return requests.stream().mapToInt(captured -> captured.bodyBytes).sum();
+    }
+  }
+
+}
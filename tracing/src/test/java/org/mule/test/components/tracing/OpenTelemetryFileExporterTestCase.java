@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing;
+
+import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_EXPORTER_MAX_BATCH_SIZE;
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.allure.AllureConstants.Profiling.ProfilingServiceStory.OPEN_TELEMETRY_EXPORTER;
+import static org.mule.test.components.tracing.OpenTelemetryProtobufSpanUtils.getSpans;
+import static org.mule.test.components.tracing.export.MappedSegmentFileSpanExporter.SEGMENT_FILE_EXTENSION;
+
+import static java.lang.Thread.sleep;
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.util.Arrays.stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.tracer.api.sniffer.CapturedExportedSpan;
+import org.mule.runtime.tracer.exporter.impl.OpenTelemetrySpanExporterFactory;
+import org.mule.tck.junit4.rule.SystemProperty;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.tracing.export.MappedSegmentFileSpanExporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@Feature(PROFILING)
+@Story(OPEN_TELEMETRY_EXPORTER)
+public class OpenTelemetryFileExporterTestCase extends OpenTelemetryTracingTestCase
+    implements OpenTelemetryTracingTestRunnerConfigAnnotation {
+
+  private static final int FLOW_RUNS = 50;
+  private static final int SPANS_PER_RUN = 2;
+  private static final int SEGMENT_SIZE = 4096;
+  // Big enough for every span of the test, so only the age starts a new segment
+  private static final int LARGE_SEGMENT_SIZE = 1024 * 1024;
+  private static final int MAX_SEGMENTS = 1000;
+  private static final int RETAINED_SEGMENTS = 2;
+  private static final Duration MAX_SEGMENT_AGE = ofMillis(200);
+  private static final String FIRST_SEGMENT_FILE = "spans-0000000000" + SEGMENT_FILE_EXTENSION;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  // Small batches, so the requests are spread across several segments
+  @Rule
+  public SystemProperty maxBatchSize = new SystemProperty(MULE_OPEN_TELEMETRY_EXPORTER_MAX_BATCH_SIZE, "2");
+
+  @Rule
+  public TemporaryFolder segmentsFolder = new TemporaryFolder();
+
+  private volatile MappedSegmentFileSpanExporter fileSpanExporter;
+
+  @Override
+  protected String getConfigFile() {
+    return "tracing/span-drop.xml";
+  }
+
+  @After
+  public void shutdownFileExporter() {
+    if (fileSpanExporter != null) {
+      fileSpanExporter.shutdown();
+    }
+  }
+
+  @Test
+  public void spansAreWrittenToSegmentFilesAndReadBack() throws Exception {
+    fileSpanExporter = newFileSpanExporter(SEGMENT_SIZE, ofMinutes(1), MAX_SEGMENTS);
+
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    }
+
+    waitUntilSpansAreRead(FLOW_RUNS * SPANS_PER_RUN);
+
+    assertThat(readSpans().stream().allMatch(span -> span.getName().equals("mule:flow")
+        || span.getName().equals("mule:set-payload")), is(true));
+    assertThat(segmentFiles().length, greaterThan(1));
+    assertThat(stream(segmentFiles()).allMatch(segmentFile -> segmentFile.length() == SEGMENT_SIZE), is(true));
+  }
+
+  @Test
+  public void onlyTheNewestSegmentsAreKept() throws Exception {
+    fileSpanExporter = newFileSpanExporter(SEGMENT_SIZE, ofMinutes(1), RETAINED_SEGMENTS);
+
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    }
+
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return segmentFiles().length == RETAINED_SEGMENTS
+            && stream(segmentFiles()).noneMatch(segmentFile -> segmentFile.getName().equals(FIRST_SEGMENT_FILE));
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The oldest segments were not deleted. Segment files: " + segmentFiles().length;
+      }
+    });
+
+    int spansRead = readSpans().size();
+    assertThat(spansRead, greaterThan(0));
+    assertThat(spansRead, lessThan(FLOW_RUNS * SPANS_PER_RUN));
+    assertThat(segmentFiles().length, is(RETAINED_SEGMENTS));
+  }
+
+  @Test
+  public void aSegmentOlderThanTheMaxAgeIsRotatedBeforeItIsFull() throws Exception {
+    fileSpanExporter = newFileSpanExporter(LARGE_SEGMENT_SIZE, MAX_SEGMENT_AGE, MAX_SEGMENTS);
+
+    flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    waitUntilSpansAreRead(SPANS_PER_RUN);
+    assertThat(segmentFiles().length, is(1));
+
+    sleep(MAX_SEGMENT_AGE.toMillis() * 2);
+    flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    waitUntilSpansAreRead(2 * SPANS_PER_RUN);
+
+    // The first segment had room for the second run, but it was too old to take it
+    assertThat(segmentFiles().length, is(2));
+  }
+
+  private MappedSegmentFileSpanExporter newFileSpanExporter(int segmentSize, Duration maxSegmentAge, int maxSegments) {
+    return new MappedSegmentFileSpanExporter(segmentsFolder.getRoot().toPath(), segmentSize, maxSegmentAge, maxSegments);
+  }
+
+  private void waitUntilSpansAreRead(int spans) {
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return readSpans().size() == spans;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The spans were not written to the segment files. Spans read: " + readSpans().size();
+      }
+    });
+  }
+
+  private List<? extends CapturedExportedSpan> readSpans() {
+    try {
+      return getSpans(segmentsFolder.getRoot().toPath());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private File[] segmentFiles() {
+    return segmentsFolder.getRoot().listFiles((dir, name) -> name.endsWith(SEGMENT_FILE_EXTENSION));
+  }
+
+  @Override
+  protected void addBuilders(List<ConfigurationBuilder> builders) {
+    super.addBuilders(builders);
+    builders.add(withSpanExporterFactory(new FileSpanExporterFactory()));
+  }
+
+  private class FileSpanExporterFactory extends OpenTelemetrySpanExporterFactory {
+
+    @Override
+    protected SpanExporter resolveOpenTelemetrySpanExporter() {
+      // Each test creates the file exporter it needs before running the flows
+      return new SpanExporter() {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+          return fileSpanExporter == null ? CompletableResultCode.ofSuccess() : fileSpanExporter.export(spans);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+          return fileSpanExporter == null ? CompletableResultCode.ofSuccess() : fileSpanExporter.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+          return CompletableResultCode.ofSuccess();
+        }
+      };
+    }
+  }
+
+}
@@ -8,6 +8,7 @@ package org.mule.test.components.tracing;
 
 import static org.mule.runtime.core.api.util.StringUtils.isEmpty;
 import static org.mule.runtime.core.api.util.StringUtils.toHexString;
+import static org.mule.test.components.tracing.export.MappedSegmentFileSpanExporter.readExportRequests;
 
 import static java.util.Collections.emptyMap;
 import static java.util.stream.Collectors.toList;
@@ -21,6 +22,8 @@ import static org.hamcrest.Matchers.equalTo;
 import org.mule.runtime.tracer.api.sniffer.CapturedEventData;
 import org.mule.runtime.tracer.api.sniffer.CapturedExportedSpan;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -47,6 +50,18 @@ public class OpenTelemetryProtobufSpanUtils {
         .collect(toList());
   }
 
+  /**
+   * Gets the spans written to a directory by a {@link org.mule.test.components.tracing.export.MappedSegmentFileSpanExporter}.
+   *
+   * @param segmentsDirectory the directory with the segment files.
+   * @return the spans, in the order they were exported.
+   */
+  public static List<? extends CapturedExportedSpan> getSpans(Path segmentsDirectory) throws IOException {
+    return readExportRequests(segmentsDirectory).stream()
+        .flatMap(exportTraceServiceRequest -> getSpans(exportTraceServiceRequest).stream())
+        .collect(toList());
+  }
+
   private static List<SpanDataWrapper> processResourceSpans(ResourceSpans resourceSpans) {
     List<Span> spans = new ArrayList<>();
     String serviceName = resourceSpans.getResource().getAttributesList()
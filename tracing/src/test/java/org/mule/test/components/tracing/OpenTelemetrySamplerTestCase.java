@@ -41,6 +41,7 @@ import org.mule.tck.junit4.rule.SystemProperty;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 import javax.inject.Inject;
 
@@ -77,7 +78,7 @@ public abstract class OpenTelemetrySamplerTestCase extends MuleArtifactFunctiona
   public static final int EXPECTED_EVALUATED_SPANS = 2;
   @Inject
   PrivilegedProfilingService profilingService;
-  private final TestSamplerSpanExporter spanExporter = new TestSamplerSpanExporter();
+  private final TestSamplerSpanExporter spanExporter = new TestSamplerSpanExporter(this::resolveSampler);
 
   private static final int TIMEOUT_MILLIS = 30000;
   private static final int POLL_DELAY_MILLIS = 100;
@@ -212,13 +213,26 @@ public abstract class OpenTelemetrySamplerTestCase extends MuleArtifactFunctiona
     return true;
   }
 
+  /**
+   * @param configuredSampler the sampler resolved from the sampler system properties.
+   * @return the sampler to use.
+   */
+  protected Sampler resolveSampler(Sampler configuredSampler) {
+    return configuredSampler;
+  }
+
   private static class TestSamplerSpanExporter extends OpenTelemetrySpanExporterFactory {
 
+    private final UnaryOperator<Sampler> samplerResolver;
     private TestSamplerWrapper sampler;
 
+    private TestSamplerSpanExporter(UnaryOperator<Sampler> samplerResolver) {
+      this.samplerResolver = samplerResolver;
+    }
+
     @Override
     protected Sampler resolveSampler() {
-      sampler = new TestSamplerWrapper(super.resolveSampler());
+      sampler = new TestSamplerWrapper(samplerResolver.apply(super.resolveSampler()));
       return sampler;
     }
 
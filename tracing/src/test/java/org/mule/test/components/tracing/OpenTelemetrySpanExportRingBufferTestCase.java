@@ -0,0 +1,229 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing;
+
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.allure.AllureConstants.Profiling.ProfilingServiceStory.OPEN_TELEMETRY_EXPORTER;
+import static org.mule.test.components.tracing.export.RingBufferSpanExporter.DROPPED_SPANS;
+import static org.mule.test.components.tracing.export.RingBufferSpanExporter.ENQUEUED_SPANS;
+import static org.mule.test.components.tracing.export.RingBufferSpanExporter.EXPORTED_SPANS;
+import static org.mule.test.components.tracing.export.MpscRingBuffer.MAX_CAPACITY;
+import static org.mule.test.components.tracing.export.MpscRingBuffer.MIN_CAPACITY;
+import static org.mule.test.components.tracing.export.RingBufferSpanExporter.QUEUE_DEPTH;
+
+import static java.lang.Thread.sleep;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.tracer.exporter.impl.OpenTelemetrySpanExporterFactory;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.tracing.export.MpscRingBuffer;
+import org.mule.test.components.tracing.export.RingBufferSpanExporter;
+import org.mule.test.components.tracing.export.TestMetricExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.After;
+import org.junit.Test;
+
+@Feature(PROFILING)
+@Story(OPEN_TELEMETRY_EXPORTER)
+public class OpenTelemetrySpanExportRingBufferTestCase extends OpenTelemetryTracingTestCase
+    implements OpenTelemetryTracingTestRunnerConfigAnnotation {
+
+  private static final int CAPACITY = 4;
+  private static final int FLOW_RUNS = 10;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+  private static final int FLUSHERS = 4;
+
+  private final BlockingSpanExporter blockingSpanExporter = new BlockingSpanExporter();
+  private final TestMetricExporter metricExporter = new TestMetricExporter();
+  private volatile RingBufferSpanExporter ringBufferSpanExporter;
+
+  @Override
+  protected String getConfigFile() {
+    return "tracing/span-drop.xml";
+  }
+
+  @After
+  public void unblock() {
+    blockingSpanExporter.unblock();
+  }
+
+  @Test
+  public void whenTheExporterIsBlockedSpansAreDroppedAndPublishedAsMeters() throws Exception {
+    flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    assertThat(blockingSpanExporter.blocked.await(TIMEOUT_MILLIS, MILLISECONDS), is(true));
+
+    // The flows never wait for the blocked exporter
+    for (int i = 0; i < FLOW_RUNS; i++) {
+      flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    }
+
+    PollingProber prober = new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS);
+    prober.check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return metricExporter.getValue(DROPPED_SPANS) > 0 && metricExporter.getValue(QUEUE_DEPTH) == CAPACITY;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The spans were not dropped. Dropped: " + metricExporter.getValue(DROPPED_SPANS) + ", queue depth: "
+            + metricExporter.getValue(QUEUE_DEPTH);
+      }
+    });
+
+    blockingSpanExporter.unblock();
+
+    prober.check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return metricExporter.getValue(EXPORTED_SPANS) == metricExporter.getValue(ENQUEUED_SPANS)
+            && metricExporter.getValue(QUEUE_DEPTH) == 0;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The enqueued spans were not exported. Enqueued: " + metricExporter.getValue(ENQUEUED_SPANS) + ", exported: "
+            + metricExporter.getValue(EXPORTED_SPANS);
+      }
+    });
+  }
+
+  @Test
+  public void concurrentFlushesWaitUntilTheSpansEnqueuedBeforeThemAreExported() throws Exception {
+    flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+    assertThat(blockingSpanExporter.blocked.await(TIMEOUT_MILLIS, MILLISECONDS), is(true));
+
+    ExecutorService flushers = newFixedThreadPool(FLUSHERS);
+    try {
+      List<Future<CompletableResultCode>> flushes = new ArrayList<>(FLUSHERS);
+      for (int i = 0; i < FLUSHERS; i++) {
+        flushes.add(flushers.submit(ringBufferSpanExporter::flush));
+      }
+
+      sleep(POLL_DELAY_MILLIS);
+      for (Future<CompletableResultCode> flush : flushes) {
+        assertThat(flush.isDone(), is(false));
+      }
+
+      blockingSpanExporter.unblock();
+      for (Future<CompletableResultCode> flush : flushes) {
+        assertThat(flush.get(TIMEOUT_MILLIS, MILLISECONDS).isSuccess(), is(true));
+      }
+    } finally {
+      flushers.shutdownNow();
+    }
+  }
+
+  @Test
+  public void whenTheExportFailsTheSpansAreCountedAsDropped() throws Exception {
+    blockingSpanExporter.failing = true;
+    flowRunner("drops-one-span").withPayload(TEST_PAYLOAD).run();
+
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return metricExporter.getValue(ENQUEUED_SPANS) > 0
+            && metricExporter.getValue(DROPPED_SPANS) == metricExporter.getValue(ENQUEUED_SPANS)
+            && metricExporter.getValue(EXPORTED_SPANS) == 0;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "The spans of the failed exports were not counted as dropped. Enqueued: "
+            + metricExporter.getValue(ENQUEUED_SPANS) + ", dropped: " + metricExporter.getValue(DROPPED_SPANS);
+      }
+    });
+  }
+
+  @Test
+  public void ringBufferCapacityOutOfBoundsIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(MIN_CAPACITY - 1));
+    assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<>(MAX_CAPACITY + 1));
+  }
+
+  @Override
+  protected void addBuilders(List<ConfigurationBuilder> builders) {
+    super.addBuilders(builders);
+    builders.add(withSpanExporterFactory(new RingBufferSpanExporterFactory()));
+  }
+
+  private class RingBufferSpanExporterFactory extends OpenTelemetrySpanExporterFactory {
+
+    @Override
+    protected SpanProcessor resolveOpenTelemetrySpanProcessor() {
+      // The ring buffer takes the place of the batch processor queue, so no span is dropped before reaching it
+      return ((RingBufferSpanExporter) resolveOpenTelemetrySpanExporter()).asSpanProcessor();
+    }
+
+    @Override
+    protected SpanExporter resolveOpenTelemetrySpanExporter() {
+      // One span per export, so the first one blocks the export thread and the rest fill the queue
+      ringBufferSpanExporter = new RingBufferSpanExporter(blockingSpanExporter, CAPACITY, 1, metricExporter.getMeter());
+      return ringBufferSpanExporter;
+    }
+  }
+
+  private static final class BlockingSpanExporter implements SpanExporter {
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch unblocked = new CountDownLatch(1);
+    private volatile boolean failing;
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      if (failing) {
+        return CompletableResultCode.ofFailure();
+      }
+      blocked.countDown();
+      try {
+        unblocked.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    private void unblock() {
+      unblocked.countDown();
+    }
+  }
+
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing;
+
+import static org.mule.tck.junit4.matcher.ErrorTypeMatcher.errorType;
+import static org.mule.test.allure.AllureConstants.Profiling.PROFILING;
+import static org.mule.test.allure.AllureConstants.Profiling.ProfilingServiceStory.OPEN_TELEMETRY_EXPORTER;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.time.Duration.ofSeconds;
+
+import static io.opentelemetry.api.trace.StatusCode.ERROR;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.tracer.exporter.impl.OpenTelemetrySpanExporterFactory;
+import org.mule.tck.probe.JUnitProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.test.components.tracing.export.CapturingSpanExporter;
+import org.mule.test.components.tracing.export.TailSamplingSpanExporter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.After;
+import org.junit.Test;
+
+@Feature(PROFILING)
+@Story(OPEN_TELEMETRY_EXPORTER)
+public class OpenTelemetryTailSamplingTestCase extends OpenTelemetryTracingTestCase
+    implements OpenTelemetryTracingTestRunnerConfigAnnotation {
+
+  private static final int SUCCESSFUL_RUNS = 20;
+  private static final int FAILING_RUNS = 5;
+  private static final int FAST_RUNS = 10;
+  private static final int SLOW_RUNS = 3;
+  // The slow flow waits for a second
+  private static final Duration LATENCY_THRESHOLD = ofMillis(500);
+  private static final double RATIO = 0.5;
+  private static final int RATIO_RUNS = 200;
+  // Five standard deviations of the number of traces kept around RATIO * RATIO_RUNS
+  private static final int MIN_KEPT_TRACES = 65;
+  private static final int MAX_KEPT_TRACES = 135;
+  private static final int MAX_TRACES = 1000;
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final int POLL_DELAY_MILLIS = 100;
+
+  private final CapturingSpanExporter capturingSpanExporter = new CapturingSpanExporter();
+  private volatile TailSamplingSpanExporter tailSamplingSpanExporter;
+
+  @Override
+  protected String getConfigFile() {
+    return "tracing/tail-sampling.xml";
+  }
+
+  @After
+  public void shutdownTailSampling() {
+    if (tailSamplingSpanExporter != null) {
+      tailSamplingSpanExporter.shutdown();
+    }
+  }
+
+  @Test
+  public void failingTracesAreExportedCompleteAndTheRestAreSampledOut() throws Exception {
+    // No successful trace is slow enough or sampled by ratio, so only the failing ones are kept
+    tailSamplingSpanExporter = new TailSamplingSpanExporter(capturingSpanExporter, ofSeconds(1), ofMinutes(1), 0, MAX_TRACES);
+
+    for (int i = 0; i < SUCCESSFUL_RUNS; i++) {
+      flowRunner("successful-flow").withPayload(TEST_PAYLOAD).run();
+    }
+    for (int i = 0; i < FAILING_RUNS; i++) {
+      flowRunner("failing-flow").withPayload(TEST_PAYLOAD).runExpectingException(errorType("CUSTOM", "ERROR"));
+    }
+
+    waitUntilDecided(SUCCESSFUL_RUNS + FAILING_RUNS);
+
+    assertThat(capturingSpanExporter.getTraces().size(), is(FAILING_RUNS));
+    for (List<SpanData> trace : capturingSpanExporter.getTraces().values()) {
+      // The whole trace is exported, not only the span that failed
+      assertThat(trace.size(), greaterThan(1));
+      assertThat(trace.stream().anyMatch(span -> !span.getParentSpanContext().isValid()), is(true));
+      assertThat(trace.stream().anyMatch(span -> span.getStatus().getStatusCode() == ERROR), is(true));
+    }
+  }
+
+  @Test
+  public void onlyTheTracesOverTheLatencyThresholdAreExported() throws Exception {
+    // Nothing is sampled by ratio, so only the slow traces are kept
+    tailSamplingSpanExporter =
+        new TailSamplingSpanExporter(capturingSpanExporter, ofSeconds(1), LATENCY_THRESHOLD, 0, MAX_TRACES);
+
+    for (int i = 0; i < FAST_RUNS; i++) {
+      flowRunner("successful-flow").withPayload(TEST_PAYLOAD).run();
+    }
+    for (int i = 0; i < SLOW_RUNS; i++) {
+      flowRunner("slow-flow").withPayload(TEST_PAYLOAD).run();
+    }
+
+    waitUntilDecided(FAST_RUNS + SLOW_RUNS);
+
+    assertThat(capturingSpanExporter.getTraces().size(), is(SLOW_RUNS));
+    for (List<SpanData> trace : capturingSpanExporter.getTraces().values()) {
+      assertThat(trace.size(), greaterThan(1));
+      assertThat(trace.stream().anyMatch(span -> !span.getParentSpanContext().isValid()), is(true));
+      assertThat(trace.stream().anyMatch(span -> span.getEndEpochNanos() - span.getStartEpochNanos() >= LATENCY_THRESHOLD
+          .toNanos()), is(true));
+    }
+  }
+
+  @Test
+  public void tracesWithoutErrorsOrLatencyAreKeptWithTheBaselineRatio() throws Exception {
+    // No trace is slow enough, so only the ratio decides
+    tailSamplingSpanExporter =
+        new TailSamplingSpanExporter(capturingSpanExporter, ofSeconds(1), ofMinutes(1), RATIO, MAX_TRACES);
+
+    for (int i = 0; i < RATIO_RUNS; i++) {
+      flowRunner("successful-flow").withPayload(TEST_PAYLOAD).run();
+    }
+
+    waitUntilDecided(RATIO_RUNS);
+
+    assertThat(capturingSpanExporter.getTraces().size(),
+               allOf(greaterThanOrEqualTo(MIN_KEPT_TRACES), lessThanOrEqualTo(MAX_KEPT_TRACES)));
+    for (List<SpanData> trace : capturingSpanExporter.getTraces().values()) {
+      // The ratio keeps or drops whole traces
+      assertThat(trace.size(), greaterThan(1));
+      assertThat(trace.stream().anyMatch(span -> !span.getParentSpanContext().isValid()), is(true));
+    }
+  }
+
+  @Test
+  public void whenMaxTracesIsExceededTheLeastRecentlyUsedTraceIsDecided() {
+    // Only two traces are kept, and none is decided by the decision wait, the latency or the ratio
+    tailSamplingSpanExporter = new TailSamplingSpanExporter(capturingSpanExporter, ofMinutes(1), ofMinutes(1), 0, 2);
+
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+        .addSpanProcessor(SimpleSpanProcessor.create(tailSamplingSpanExporter)).build();
+    try {
+      Tracer tracer = tracerProvider.get(OpenTelemetryTailSamplingTestCase.class.getName());
+      // The roots never end, so the traces stay pending until they are evicted
+      Span firstRoot = tracer.spanBuilder("first").startSpan();
+      Span secondRoot = tracer.spanBuilder("second").startSpan();
+      Span thirdRoot = tracer.spanBuilder("third").startSpan();
+
+      endChild(tracer, firstRoot, false);
+      endChild(tracer, secondRoot, true);
+      // Using the first trace again leaves the second one as the least recently used
+      endChild(tracer, firstRoot, false);
+      endChild(tracer, thirdRoot, false);
+
+      assertThat(tailSamplingSpanExporter.getPendingTraces(), is(2));
+      assertThat(tailSamplingSpanExporter.getDecisions(), is(1L));
+      // The evicted trace had an error, so it is exported with the spans it had so far
+      assertThat(capturingSpanExporter.getTraces().keySet(), contains(secondRoot.getSpanContext().getTraceId()));
+    } finally {
+      tracerProvider.shutdown();
+    }
+  }
+
+  private static void endChild(Tracer tracer, Span root, boolean failed) {
+    Span child = tracer.spanBuilder("child").setParent(Context.root().with(root)).startSpan();
+    if (failed) {
+      child.setStatus(ERROR);
+    }
+    child.end();
+  }
+
+  private void waitUntilDecided(int traces) {
+    new PollingProber(TIMEOUT_MILLIS, POLL_DELAY_MILLIS).check(new JUnitProbe() {
+
+      @Override
+      protected boolean test() {
+        return tailSamplingSpanExporter.getDecisions() == traces && tailSamplingSpanExporter.getPendingTraces() == 0;
+      }
+
+      @Override
+      public String describeFailure() {
+        return "Not every trace was decided. Decisions: " + tailSamplingSpanExporter.getDecisions() + ", pending traces: "
+            + tailSamplingSpanExporter.getPendingTraces();
+      }
+    });
+  }
+
+  @Override
+  protected void addBuilders(List<ConfigurationBuilder> builders) {
+    super.addBuilders(builders);
+    builders.add(withSpanExporterFactory(new TailSamplingSpanExporterFactory()));
+  }
+
+  private class TailSamplingSpanExporterFactory extends OpenTelemetrySpanExporterFactory {
+
+    @Override
+    protected SpanExporter resolveOpenTelemetrySpanExporter() {
+      // Each test creates the tail sampling exporter it needs before running the flows
+      return new SpanExporter() {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+          return tailSamplingSpanExporter == null ? CompletableResultCode.ofSuccess() : tailSamplingSpanExporter.export(spans);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+          return tailSamplingSpanExporter == null ? CompletableResultCode.ofSuccess() : tailSamplingSpanExporter.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+          return CompletableResultCode.ofSuccess();
+        }
+      };
+    }
+  }
+
+}
@@ -8,9 +8,14 @@ package org.mule.test.components.tracing;
 
 import org.junit.Rule;
 import org.mule.functional.junit4.MuleArtifactFunctionalTestCase;
+import org.mule.runtime.api.config.custom.ServiceConfigurator;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.config.ConfigurationBuilder;
+import org.mule.runtime.tracer.exporter.impl.OpenTelemetrySpanExporterFactory;
 import org.mule.tck.junit4.rule.SystemProperty;
 
 import static java.lang.Boolean.TRUE;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_CORE_EXPORTER_FACTORY_KEY;
 import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.ALWAYS_ON_SAMPLER;
 import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_EXPORTER_ENABLED;
 import static org.mule.runtime.tracer.exporter.config.api.OpenTelemetrySpanExporterConfigurationProperties.MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER;
@@ -21,4 +26,23 @@ public abstract class OpenTelemetryTracingTestCase extends MuleArtifactFunctiona
   public SystemProperty enableTracing = new SystemProperty(MULE_OPEN_TELEMETRY_EXPORTER_ENABLED, TRUE.toString());
   @Rule
   public SystemProperty doNotSample = new SystemProperty(MULE_OPEN_TELEMETRY_OTEL_TRACES_SAMPLER, ALWAYS_ON_SAMPLER);
+
+  /**
+   * @param spanExporterFactory the span exporter factory to use instead of the one of the runtime.
+   * @return a builder that overrides the span exporter factory, to be added in {@link #addBuilders(java.util.List)}.
+   */
+  protected static ConfigurationBuilder withSpanExporterFactory(OpenTelemetrySpanExporterFactory spanExporterFactory) {
+    return new ConfigurationBuilder() {
+
+      @Override
+      public void addServiceConfigurator(ServiceConfigurator serviceConfigurator) {
+        // Nothing to do
+      }
+
+      @Override
+      public void configure(MuleContext muleContext) {
+        muleContext.getCustomizationService().overrideDefaultServiceImpl(MULE_CORE_EXPORTER_FACTORY_KEY, spanExporterFactory);
+      }
+    };
+  }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Long.parseUnsignedLong;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+/**
+ * {@link Sampler} that targets a budget of sampled root spans per second, that is of sampled traces, instead of a fixed ratio.
+ * <p>
+ * As the parent based samplers, a span with a valid parent keeps the decision of the parent, so the traces are not broken. The
+ * ratio only applies to the root spans, based on their trace id, so only the root spans are counted: once per adjustment
+ * interval the sampling ratio is recomputed as the budget divided by the observed rate of root spans, between the given
+ * minimum ratio and {@code 1}. So a quiet application samples every trace, and an application under a load spike samples fewer
+ * traces instead of flooding the collector. One instance must be used per application, so that each one gets its own budget.
+ */
+public class AdaptiveRateSampler implements Sampler {
+
+  private final double targetRootSpansPerSecond;
+  private final double minimumRatio;
+  private final long adjustmentIntervalNanos;
+  private final LongSupplier nanoClock;
+
+  private final LongAdder observedRootSpans = new LongAdder();
+  private final AtomicLong lastAdjustment;
+  private volatile long ratioBits = doubleToLongBits(1.0);
+
+  public AdaptiveRateSampler(double targetRootSpansPerSecond, double minimumRatio, Duration adjustmentInterval) {
+    this(targetRootSpansPerSecond, minimumRatio, adjustmentInterval, System::nanoTime);
+  }
+
+  /**
+   * @param nanoClock the source of the time used to compute the rate of root spans, in nanoseconds, as {@link System#nanoTime()}.
+   */
+  public AdaptiveRateSampler(double targetRootSpansPerSecond, double minimumRatio, Duration adjustmentInterval,
+                             LongSupplier nanoClock) {
+    this.targetRootSpansPerSecond = targetRootSpansPerSecond;
+    this.minimumRatio = minimumRatio;
+    this.adjustmentIntervalNanos = adjustmentInterval.toNanos();
+    this.nanoClock = nanoClock;
+    this.lastAdjustment = new AtomicLong(nanoClock.getAsLong());
+  }
+
+  @Override
+  public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                     Attributes attributes, List<LinkData> parentLinks) {
+    SpanContext parentSpanContext = Span.fromContext(parentContext).getSpanContext();
+    if (parentSpanContext.isValid()) {
+      return parentSpanContext.isSampled() ? SamplingResult.recordAndSample() : SamplingResult.drop();
+    }
+
+    observedRootSpans.increment();
+    adjustRatioIfNeeded();
+    return isSampledByRatio(traceId) ? SamplingResult.recordAndSample() : SamplingResult.drop();
+  }
+
+  @Override
+  public String getDescription() {
+    return format("AdaptiveRateSampler{targetRootSpansPerSecond=%s, ratio=%s}", targetRootSpansPerSecond, getRatio());
+  }
+
+  /**
+   * @return the ratio currently applied to the root spans.
+   */
+  public double getRatio() {
+    return longBitsToDouble(ratioBits);
+  }
+
+  private void adjustRatioIfNeeded() {
+    long now = nanoClock.getAsLong();
+    long last = lastAdjustment.get();
+    long elapsed = now - last;
+    // Only the thread that moves the interval forward recomputes the ratio
+    if (elapsed < adjustmentIntervalNanos || !lastAdjustment.compareAndSet(last, now)) {
+      return;
+    }
+
+    double observedRootSpansPerSecond = observedRootSpans.sumThenReset() * (double) SECONDS.toNanos(1) / elapsed;
+    double ratio = observedRootSpansPerSecond == 0 ? 1.0 : targetRootSpansPerSecond / observedRootSpansPerSecond;
+    ratioBits = doubleToLongBits(max(minimumRatio, min(1.0, ratio)));
+  }
+
+  private boolean isSampledByRatio(String traceId) {
+    // The same decision as the trace id ratio sampler, using the lower 63 bits of the trace id
+    long bound = (long) (getRatio() * Long.MAX_VALUE);
+    return parseUnsignedLong(traceId.substring(traceId.length() - 16), 16) >>> 1 < bound;
+  }
+
+}
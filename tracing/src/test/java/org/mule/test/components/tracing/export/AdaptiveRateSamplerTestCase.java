@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.lang.Math.sqrt;
+import static java.time.Duration.ofSeconds;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static io.opentelemetry.api.trace.SpanKind.INTERNAL;
+import static io.opentelemetry.sdk.trace.samplers.SamplingDecision.DROP;
+import static io.opentelemetry.sdk.trace.samplers.SamplingDecision.RECORD_AND_SAMPLE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import org.junit.Test;
+
+/**
+ * Checks the ratio computed by {@link AdaptiveRateSampler} against a controlled clock.
+ */
+public class AdaptiveRateSamplerTestCase {
+
+  private static final double MINIMUM_RATIO = 0.01;
+  private static final double BUDGET = 100;
+  private static final int ROOT_SPANS_OVER_BUDGET = 1000;
+  private static final int SAMPLED_ROOT_SPANS = 10000;
+  private static final int CHILD_SPANS = 10000;
+
+  private final IdGenerator idGenerator = IdGenerator.random();
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  public void rootSpansAboveTheBudgetLowerTheRatio() {
+    AdaptiveRateSampler sampler = new AdaptiveRateSampler(BUDGET, MINIMUM_RATIO, ofSeconds(1), clock::get);
+    for (int i = 0; i < ROOT_SPANS_OVER_BUDGET; i++) {
+      sampleRoot(sampler);
+    }
+    // The first root span after the interval recomputes the ratio, counting itself
+    clock.addAndGet(SECONDS.toNanos(1));
+    sampleRoot(sampler);
+
+    double expectedRatio = BUDGET / (ROOT_SPANS_OVER_BUDGET + 1);
+    assertThat(sampler.getRatio(), closeTo(expectedRatio, 1e-9));
+
+    int sampled = 0;
+    for (int i = 0; i < SAMPLED_ROOT_SPANS; i++) {
+      if (sampleRoot(sampler) == RECORD_AND_SAMPLE) {
+        sampled++;
+      }
+    }
+    // Five standard deviations around the expected number of sampled root spans
+    double expectedSampled = expectedRatio * SAMPLED_ROOT_SPANS;
+    double tolerance = 5 * sqrt(expectedSampled * (1 - expectedRatio));
+    assertThat((double) sampled, allOf(greaterThanOrEqualTo(expectedSampled - tolerance),
+                                       lessThanOrEqualTo(expectedSampled + tolerance)));
+  }
+
+  @Test
+  public void ratioIsNotLoweredBelowTheMinimum() {
+    AdaptiveRateSampler sampler = new AdaptiveRateSampler(BUDGET, MINIMUM_RATIO, ofSeconds(1), clock::get);
+    // A hundred times the root spans that the minimum ratio would still fit in the budget
+    int rootSpans = (int) (100 * BUDGET / MINIMUM_RATIO);
+    for (int i = 0; i < rootSpans; i++) {
+      sampleRoot(sampler);
+    }
+    clock.addAndGet(SECONDS.toNanos(1));
+    sampleRoot(sampler);
+
+    assertThat(sampler.getRatio(), is(MINIMUM_RATIO));
+  }
+
+  @Test
+  public void childSpansFollowTheirParentAndAreNotCounted() {
+    AdaptiveRateSampler sampler = new AdaptiveRateSampler(BUDGET, MINIMUM_RATIO, ofSeconds(1), clock::get);
+    for (int i = 0; i < CHILD_SPANS; i++) {
+      assertThat(sampleChild(sampler, TraceFlags.getSampled()), is(RECORD_AND_SAMPLE));
+      assertThat(sampleChild(sampler, TraceFlags.getDefault()), is(DROP));
+    }
+    clock.addAndGet(SECONDS.toNanos(1));
+    sampleRoot(sampler);
+
+    // Only the root span was counted, far below the budget
+    assertThat(sampler.getRatio(), is(1.0));
+  }
+
+  private SamplingDecision sampleRoot(AdaptiveRateSampler sampler) {
+    return sampler.shouldSample(Context.root(), idGenerator.generateTraceId(), "root", INTERNAL, Attributes.empty(),
+                                emptyList())
+        .getDecision();
+  }
+
+  private SamplingDecision sampleChild(AdaptiveRateSampler sampler, TraceFlags parentFlags) {
+    String traceId = idGenerator.generateTraceId();
+    SpanContext parent = SpanContext.createFromRemoteParent(traceId, idGenerator.generateSpanId(), parentFlags,
+                                                            TraceState.getDefault());
+    return sampler.shouldSample(Context.root().with(Span.wrap(parent)), traceId, "child", INTERNAL, Attributes.empty(),
+                                emptyList())
+        .getDecision();
+  }
+
+}
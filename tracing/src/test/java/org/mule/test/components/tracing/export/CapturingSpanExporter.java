@@ -0,0 +1,50 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.util.stream.Collectors.groupingBy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * {@link SpanExporter} that keeps every span exported to it in memory.
+ */
+public class CapturingSpanExporter implements SpanExporter {
+
+  private final List<SpanData> spans = new ArrayList<>();
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    this.spans.addAll(spans);
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  /**
+   * @return the spans exported so far, by trace id.
+   */
+  public synchronized Map<String, List<SpanData>> getTraces() {
+    return spans.stream().collect(groupingBy(SpanData::getTraceId));
+  }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static org.mule.test.tracing.export.SpanDataProtobufUtils.toExportTraceServiceRequest;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.list;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * {@link SpanExporter} that writes the spans to local files instead of sending them to a collector, so they can be shipped
+ * later.
+ * <p>
+ * Each export is written as an OTLP {@link ExportTraceServiceRequest} protobuf, prefixed by its length as a 4 byte int, to
+ * memory-mapped segment files of a fixed size. The length is written after the request, so a zero length marks the end of the
+ * written records of a segment. The records can be read back with {@link #readExportRequests(Path)}.
+ * <p>
+ * A new segment is started when a request does not fit in the current one, or when the current one is older than the maximum
+ * segment age, so spans don't stay in a segment that is not full for long. Only the newest {@code maxSegments} segments are
+ * kept: when a new segment exceeds it, the oldest one is deleted. Segments already in the directory are kept and counted, and
+ * the new ones are numbered after them.
+ */
+public class MappedSegmentFileSpanExporter implements SpanExporter {
+
+  public static final String SEGMENT_FILE_EXTENSION = ".otlp";
+
+  private static final String SEGMENT_FILE_PREFIX = "spans-";
+  private static final String SEGMENT_FILE_NAME_FORMAT = SEGMENT_FILE_PREFIX + "%010d" + SEGMENT_FILE_EXTENSION;
+  private static final int LENGTH_PREFIX_BYTES = Integer.BYTES;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maxSegmentAgeNanos;
+  private final int maxSegments;
+  private final Deque<Path> segmentFiles = new ArrayDeque<>();
+
+  private int segmentIndex;
+  private MappedByteBuffer segment;
+  private long segmentCreated;
+  private boolean shutdown;
+
+  /**
+   * @param directory     the directory to write the segment files to.
+   * @param segmentSize   the size of each segment file, in bytes.
+   * @param maxSegmentAge the time after which a new segment is started even if the current one is not full.
+   * @param maxSegments   the number of segment files to keep.
+   */
+  public MappedSegmentFileSpanExporter(Path directory, int segmentSize, Duration maxSegmentAge, int maxSegments) {
+    if (maxSegments < 1) {
+      throw new IllegalArgumentException("At least one segment has to be kept, but maxSegments was " + maxSegments);
+    }
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegmentAgeNanos = maxSegmentAge.toNanos();
+    this.maxSegments = maxSegments;
+    try {
+      createDirectories(directory);
+      segmentFiles.addAll(listSegmentFiles(directory));
+      if (!segmentFiles.isEmpty()) {
+        segmentIndex = segmentIndex(segmentFiles.getLast()) + 1;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    if (shutdown) {
+      return CompletableResultCode.ofFailure();
+    }
+    if (spans.isEmpty()) {
+      // An empty request would be written with a zero length, which marks the end of the segment
+      return CompletableResultCode.ofSuccess();
+    }
+
+    ExportTraceServiceRequest request = toExportTraceServiceRequest(spans);
+    int length = request.getSerializedSize();
+    try {
+      if (segment == null || segment.remaining() < LENGTH_PREFIX_BYTES + length
+          || nanoTime() - segmentCreated >= maxSegmentAgeNanos) {
+        nextSegment(LENGTH_PREFIX_BYTES + length);
+      }
+
+      int lengthPosition = segment.position();
+      segment.position(lengthPosition + LENGTH_PREFIX_BYTES);
+      request.writeTo(new MappedByteBufferOutputStream(segment));
+      segment.putInt(lengthPosition, length);
+      return CompletableResultCode.ofSuccess();
+    } catch (IOException e) {
+      return CompletableResultCode.ofFailure();
+    }
+  }
+
+  @Override
+  public synchronized CompletableResultCode flush() {
+    if (segment != null) {
+      segment.force();
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public synchronized CompletableResultCode shutdown() {
+    flush();
+    segment = null;
+    shutdown = true;
+    return CompletableResultCode.ofSuccess();
+  }
+
+  private void nextSegment(int minimumSize) throws IOException {
+    if (segment != null) {
+      segment.force();
+    }
+
+    Path segmentFile = directory.resolve(format(SEGMENT_FILE_NAME_FORMAT, segmentIndex++));
+    // A request bigger than the segment size gets a segment of its own
+    int size = max(segmentSize, minimumSize);
+    try (FileChannel channel = FileChannel.open(segmentFile, CREATE_NEW, READ, WRITE)) {
+      // The mapping stays valid after the channel is closed
+      segment = channel.map(READ_WRITE, 0, size);
+    }
+    segmentCreated = nanoTime();
+    segmentFiles.addLast(segmentFile);
+
+    while (segmentFiles.size() > maxSegments) {
+      deleteIfExists(segmentFiles.removeFirst());
+    }
+  }
+
+  private static List<Path> listSegmentFiles(Path directory) throws IOException {
+    try (Stream<Path> files = list(directory)) {
+      return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_FILE_PREFIX)
+          && file.getFileName().toString().endsWith(SEGMENT_FILE_EXTENSION))
+          .sorted()
+          .collect(toList());
+    }
+  }
+
+  private static int segmentIndex(Path segmentFile) {
+    String fileName = segmentFile.getFileName().toString();
+    return parseInt(fileName.substring(SEGMENT_FILE_PREFIX.length(), fileName.length() - SEGMENT_FILE_EXTENSION.length()));
+  }
+
+  /**
+   * Reads the requests written to the segment files of a directory, in the order they were exported. Segments deleted while
+   * reading them are skipped.
+   *
+   * @param directory the directory the exporter writes to.
+   * @return the requests.
+   */
+  public static List<ExportTraceServiceRequest> readExportRequests(Path directory) throws IOException {
+    List<ExportTraceServiceRequest> requests = new ArrayList<>();
+    for (Path segmentFile : listSegmentFiles(directory)) {
+      try (FileChannel channel = FileChannel.open(segmentFile, READ)) {
+        MappedByteBuffer segment = channel.map(READ_ONLY, 0, channel.size());
+        while (segment.remaining() >= LENGTH_PREFIX_BYTES) {
+          int length = segment.getInt();
+          if (length == 0 || length > segment.remaining()) {
+            break;
+          }
+          ByteBuffer record = segment.slice();
+          record.limit(length);
+          requests.add(ExportTraceServiceRequest.parseFrom(record));
+          segment.position(segment.position() + length);
+        }
+      } catch (NoSuchFileException e) {
+        // Deleted by the exporter after it was listed, as it exceeded the segments to keep
+      }
+    }
+    return requests;
+  }
+
+  private static final class MappedByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    private MappedByteBufferOutputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+      buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      buffer.put(bytes, offset, length);
+    }
+  }
+
+}
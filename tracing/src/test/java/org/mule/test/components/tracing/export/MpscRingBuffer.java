@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.lang.Integer.highestOneBit;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multiple producer / single consumer ring buffer.
+ * <p>
+ * Each slot has a sequence that tells whether it is free for the producer claiming a given index or holds an element published
+ * for the consumer, so producers only contend on a CAS of the producer index and never wait: {@link #offer(Object)} returns
+ * {@code false} when the buffer is full. The capacity is rounded up to a power of two, so it has to be between
+ * {@value #MIN_CAPACITY} and {@value #MAX_CAPACITY}.
+ *
+ * @param <E> the type of the elements.
+ */
+public class MpscRingBuffer<E> {
+
+  public static final int MIN_CAPACITY = 2;
+  public static final int MAX_CAPACITY = 1 << 30;
+
+  private final int capacity;
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong producerIndex = new AtomicLong();
+  private volatile long consumerIndex;
+
+  public MpscRingBuffer(int requestedCapacity) {
+    if (requestedCapacity < MIN_CAPACITY || requestedCapacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException(format("The capacity must be between %d and %d, but was %d", MIN_CAPACITY,
+                                                MAX_CAPACITY, requestedCapacity));
+    }
+    int roundedCapacity = highestOneBit(requestedCapacity);
+    this.capacity = roundedCapacity < requestedCapacity ? roundedCapacity << 1 : roundedCapacity;
+    this.mask = capacity - 1;
+    this.elements = new AtomicReferenceArray<>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Adds an element without blocking. Can be called from any thread.
+   *
+   * @return whether the element was added, {@code false} if the buffer is full.
+   */
+  public boolean offer(E element) {
+    long index;
+    while (true) {
+      index = producerIndex.get();
+      long sequence = sequences.get(slot(index));
+      if (sequence < index) {
+        // The slot still holds the element of the previous lap
+        return false;
+      }
+      if (sequence == index && producerIndex.compareAndSet(index, index + 1)) {
+        break;
+      }
+    }
+    int slot = slot(index);
+    elements.lazySet(slot, element);
+    sequences.set(slot, index + 1);
+    return true;
+  }
+
+  /**
+   * Takes the oldest element. Must only be called from the consumer thread.
+   *
+   * @return the element, or {@code null} if the buffer is empty.
+   */
+  public E poll() {
+    long index = consumerIndex;
+    int slot = slot(index);
+    if (sequences.get(slot) != index + 1) {
+      return null;
+    }
+    E element = elements.get(slot);
+    elements.lazySet(slot, null);
+    sequences.set(slot, index + capacity);
+    consumerIndex = index + 1;
+    return element;
+  }
+
+  /**
+   * @return the number of elements added so far, which is also the index the next element added will get.
+   */
+  public long producerCursor() {
+    return producerIndex.get();
+  }
+
+  /**
+   * @return an estimate of the number of elements in the buffer.
+   */
+  public int size() {
+    return (int) max(0, producerIndex.get() - consumerIndex);
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  private int slot(long index) {
+    return (int) (index & mask);
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * {@link SpanExporter} that puts the spans in a bounded {@link MpscRingBuffer} and exports them to the delegate from its own
+ * thread, so the threads exporting spans never block on a slow collector: when the buffer is full the spans are dropped.
+ * <p>
+ * It has to be the only queue between the ended spans and the delegate, so every dropped span is counted: use it through
+ * {@link #asSpanProcessor()}, which hands each ended span to the buffer from the thread that ends it, instead of behind a
+ * {@code BatchSpanProcessor}, whose own queue would drop spans this exporter never sees.
+ * <p>
+ * The spans enqueued, dropped and exported, and the depth of the queue, are published as meters of the given {@link Meter}:
+ * <ul>
+ * <li>{@value #ENQUEUED_SPANS}</li>
+ * <li>{@value #DROPPED_SPANS}</li>
+ * <li>{@value #EXPORTED_SPANS}</li>
+ * <li>{@value #QUEUE_DEPTH}</li>
+ * </ul>
+ * <p>
+ * {@link #flush()} takes the producer cursor of the buffer when it is called and waits until the export thread has exported
+ * every span up to it, so any number of threads can flush at the same time, each one waiting only for the spans added before
+ * it was called.
+ */
+public class RingBufferSpanExporter implements SpanExporter {
+
+  public static final String ENQUEUED_SPANS = "mule.tracing.export.spans.enqueued";
+  public static final String DROPPED_SPANS = "mule.tracing.export.spans.dropped";
+  public static final String EXPORTED_SPANS = "mule.tracing.export.spans.exported";
+  public static final String QUEUE_DEPTH = "mule.tracing.export.queue.depth";
+
+  private static final long IDLE_PARK_NANOS = MILLISECONDS.toNanos(1);
+  private static final long EXPORT_TIMEOUT_SECONDS = 30;
+
+  private final SpanExporter delegate;
+  private final MpscRingBuffer<SpanData> buffer;
+  private final int maxExportBatchSize;
+  private final LongCounter enqueued;
+  private final LongCounter dropped;
+  private final LongCounter exported;
+  private final Thread worker;
+
+  private volatile boolean running = true;
+  // Number of spans taken from the buffer whose export has completed
+  private volatile long exportedCursor;
+
+  public RingBufferSpanExporter(SpanExporter delegate, int capacity, int maxExportBatchSize, Meter meter) {
+    this.delegate = delegate;
+    this.buffer = new MpscRingBuffer<>(capacity);
+    this.maxExportBatchSize = maxExportBatchSize;
+    this.enqueued = meter.counterBuilder(ENQUEUED_SPANS).setDescription("Spans added to the export queue").build();
+    this.dropped = meter.counterBuilder(DROPPED_SPANS)
+        .setDescription("Spans dropped because the export queue was full or their export failed").build();
+    this.exported = meter.counterBuilder(EXPORTED_SPANS).setDescription("Spans successfully exported").build();
+    meter.gaugeBuilder(QUEUE_DEPTH).ofLongs().setDescription("Spans waiting in the export queue")
+        .buildWithCallback(measurement -> measurement.record(buffer.size()));
+
+    this.worker = new Thread(this::exportLoop, "span-export-ring-buffer");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * @return a {@link SpanProcessor} that exports each sampled span to this exporter as soon as it ends.
+   */
+  public SpanProcessor asSpanProcessor() {
+    return SimpleSpanProcessor.create(this);
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<SpanData> spans) {
+    long enqueuedSpans = 0;
+    long droppedSpans = 0;
+    for (SpanData span : spans) {
+      if (buffer.offer(span)) {
+        enqueuedSpans++;
+      } else {
+        droppedSpans++;
+      }
+    }
+    enqueued.add(enqueuedSpans);
+    if (droppedSpans > 0) {
+      dropped.add(droppedSpans);
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    long flushCursor = buffer.producerCursor();
+    long deadline = nanoTime() + SECONDS.toNanos(EXPORT_TIMEOUT_SECONDS);
+    while (exportedCursor < flushCursor) {
+      if (!worker.isAlive() || nanoTime() - deadline > 0) {
+        return CompletableResultCode.ofFailure();
+      }
+      parkNanos(IDLE_PARK_NANOS);
+    }
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    running = false;
+    try {
+      worker.join(SECONDS.toMillis(EXPORT_TIMEOUT_SECONDS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return delegate.shutdown();
+  }
+
+  private void exportLoop() {
+    List<SpanData> batch = new ArrayList<>(maxExportBatchSize);
+    long polledSpans = 0;
+    while (running || buffer.size() > 0) {
+      SpanData span;
+      while (batch.size() < maxExportBatchSize && (span = buffer.poll()) != null) {
+        batch.add(span);
+      }
+
+      if (batch.isEmpty()) {
+        parkNanos(IDLE_PARK_NANOS);
+        continue;
+      }
+
+      CompletableResultCode result = delegate.export(batch).join(EXPORT_TIMEOUT_SECONDS, SECONDS);
+      // A failed or timed out export loses the whole batch
+      if (result.isSuccess()) {
+        exported.add(batch.size());
+      } else {
+        dropped.add(batch.size());
+      }
+      polledSpans += batch.size();
+      exportedCursor = polledSpans;
+      batch.clear();
+    }
+  }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.lang.Long.parseUnsignedLong;
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import static io.opentelemetry.api.trace.StatusCode.ERROR;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * {@link SpanExporter} that decides whether to export a trace once all its spans are known, instead of when the first span is
+ * started.
+ * <p>
+ * The spans of each trace are kept in memory until the local root span of the trace ends, or until no span of the trace was
+ * seen for the decision wait. Then the whole trace is exported if any of its spans has an error or took longer than the latency
+ * threshold, and the rest of the traces are exported with the given ratio, based on the trace id. Spans of a trace that arrive
+ * after its decision follow that same decision. Traces that go idle are decided by a sweep scheduled every half decision wait,
+ * so their spans don't wait for the next export to be released.
+ * <p>
+ * At most {@code maxTraces} traces are kept in memory. When a new trace exceeds it, the least recently used trace is decided
+ * with the spans it has so far, so a trace with errors is still exported.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+  private final SpanExporter delegate;
+  private final long decisionWaitNanos;
+  private final long latencyThresholdNanos;
+  private final long ratioUpperBound;
+  private final int maxTraces;
+  private final ScheduledExecutorService sweeper;
+  private long decisions;
+
+  private final LinkedHashMap<String, PendingTrace> pendingTraces;
+  private final LinkedHashMap<String, Boolean> decidedTraces;
+
+  public TailSamplingSpanExporter(SpanExporter delegate, Duration decisionWait, Duration latencyThreshold, double ratio,
+                                  int maxTraces) {
+    this.delegate = delegate;
+    this.decisionWaitNanos = decisionWait.toNanos();
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.ratioUpperBound = (long) (ratio * Long.MAX_VALUE);
+    this.maxTraces = maxTraces;
+    this.pendingTraces = new LinkedHashMap<>(16, 0.75f, true);
+    this.decidedTraces = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+        return size() > TailSamplingSpanExporter.this.maxTraces;
+      }
+    };
+
+    long sweepPeriodNanos = max(decisionWaitNanos / 2, MILLISECONDS.toNanos(1));
+    this.sweeper = newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "tail-sampling-sweep");
+      thread.setDaemon(true);
+      return thread;
+    });
+    sweeper.scheduleWithFixedDelay(this::sweepIdleTraces, sweepPeriodNanos, sweepPeriodNanos, NANOSECONDS);
+  }
+
+  @Override
+  public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+    long now = nanoTime();
+    List<SpanData> toExport = new ArrayList<>();
+
+    for (SpanData span : spans) {
+      String traceId = span.getTraceId();
+      Boolean decision = decidedTraces.get(traceId);
+      if (decision != null) {
+        if (decision) {
+          toExport.add(span);
+        }
+        continue;
+      }
+
+      PendingTrace trace = pendingTraces.computeIfAbsent(traceId, id -> new PendingTrace());
+      trace.add(span, now);
+      if (isLocalRoot(span)) {
+        decide(traceId, pendingTraces.remove(traceId), toExport);
+      } else if (pendingTraces.size() > maxTraces) {
+        Iterator<Map.Entry<String, PendingTrace>> leastRecentlyUsed = pendingTraces.entrySet().iterator();
+        Map.Entry<String, PendingTrace> evicted = leastRecentlyUsed.next();
+        leastRecentlyUsed.remove();
+        decide(evicted.getKey(), evicted.getValue(), toExport);
+      }
+    }
+
+    decideIdleTraces(now, toExport);
+    return toExport.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(toExport);
+  }
+
+  @Override
+  public synchronized CompletableResultCode flush() {
+    List<SpanData> toExport = new ArrayList<>();
+    pendingTraces.forEach((traceId, trace) -> decide(traceId, trace, toExport));
+    pendingTraces.clear();
+    if (!toExport.isEmpty()) {
+      delegate.export(toExport);
+    }
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    sweeper.shutdownNow();
+    flush();
+    return delegate.shutdown();
+  }
+
+  /**
+   * @return the number of traces waiting for a decision.
+   */
+  public synchronized int getPendingTraces() {
+    return pendingTraces.size();
+  }
+
+  private synchronized void sweepIdleTraces() {
+    List<SpanData> toExport = new ArrayList<>();
+    decideIdleTraces(nanoTime(), toExport);
+    if (!toExport.isEmpty()) {
+      delegate.export(toExport);
+    }
+  }
+
+  private void decideIdleTraces(long now, List<SpanData> toExport) {
+    // Access order, so the traces idle for longer come first
+    Iterator<Map.Entry<String, PendingTrace>> traces = pendingTraces.entrySet().iterator();
+    while (traces.hasNext()) {
+      Map.Entry<String, PendingTrace> trace = traces.next();
+      if (now - trace.getValue().lastSeen < decisionWaitNanos) {
+        break;
+      }
+      traces.remove();
+      decide(trace.getKey(), trace.getValue(), toExport);
+    }
+  }
+
+  /**
+   * @return the number of decisions taken so far, one per trace unless spans of a trace arrive after its decision was
+   *         forgotten.
+   */
+  public synchronized long getDecisions() {
+    return decisions;
+  }
+
+  private void decide(String traceId, PendingTrace trace, List<SpanData> toExport) {
+    decisions++;
+    boolean keep = trace.interesting || isSampledByRatio(traceId);
+    decidedTraces.put(traceId, keep);
+    if (keep) {
+      toExport.addAll(trace.spans);
+    }
+  }
+
+  private boolean isSampledByRatio(String traceId) {
+    return parseUnsignedLong(traceId.substring(traceId.length() - 16), 16) >>> 1 < ratioUpperBound;
+  }
+
+  private static boolean isLocalRoot(SpanData span) {
+    SpanContext parent = span.getParentSpanContext();
+    return !parent.isValid() || parent.isRemote();
+  }
+
+  private final class PendingTrace {
+
+    private final List<SpanData> spans = new ArrayList<>();
+    private boolean interesting;
+    private long lastSeen;
+
+    private void add(SpanData span, long now) {
+      spans.add(span);
+      lastSeen = now;
+      interesting |= span.getStatus().getStatusCode() == ERROR
+          || span.getEndEpochNanos() - span.getStartEpochNanos() >= latencyThresholdNanos;
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2023 Salesforce, Inc. All rights reserved.
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.test.components.tracing.export;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import static io.opentelemetry.sdk.metrics.data.AggregationTemporality.CUMULATIVE;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+
+/**
+ * Keeps the last value of the long meters of an in-process {@link SdkMeterProvider}, so the tests can check the meters
+ * published by the exporters without a collector.
+ */
+public class TestMetricExporter implements MetricExporter {
+
+  private static final String INSTRUMENTATION_SCOPE = "org.mule.test.components.tracing";
+
+  private final Map<String, Long> values = new ConcurrentHashMap<>();
+  private final SdkMeterProvider meterProvider = SdkMeterProvider.builder()
+      .registerMetricReader(PeriodicMetricReader.builder(this).setInterval(Duration.ofHours(1)).build())
+      .build();
+
+  public Meter getMeter() {
+    return meterProvider.get(INSTRUMENTATION_SCOPE);
+  }
+
+  /**
+   * Collects the meters and returns the last value of the given one.
+   *
+   * @return the value, {@code 0} if nothing was recorded for the meter.
+   */
+  public long getValue(String meterName) {
+    meterProvider.forceFlush().join(10, SECONDS);
+    return values.getOrDefault(meterName, 0L);
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<MetricData> metrics) {
+    for (MetricData metric : metrics) {
+      switch (metric.getType()) {
+        case LONG_SUM:
+          values.put(metric.getName(), metric.getLongSumData().getPoints().stream().mapToLong(LongPointData::getValue).sum());
+          break;
+        case LONG_GAUGE:
+          values.put(metric.getName(), metric.getLongGaugeData().getPoints().stream().mapToLong(LongPointData::getValue).sum());
+          break;
+        default:
+          // Only long meters are used
+      }
+    }
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+    return CUMULATIVE;
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return CompletableResultCode.ofSuccess();
+  }
+
+}